@@ -0,0 +1,66 @@
+package ru.ifmo.rain.khusainov.concurrent.benchmark;
+
+import info.kgeorgiy.java.advanced.mapper.ParallelMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.ifmo.rain.khusainov.concurrent.AffinityParallelMapper;
+import ru.ifmo.rain.khusainov.concurrent.IterativeParallelism;
+import ru.ifmo.rain.khusainov.concurrent.Monoid;
+import ru.ifmo.rain.khusainov.concurrent.ParallelMapperImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repeatedly scans the same large list, comparing pinned chunk-to-worker assignment
+ * with the shared job queue of {@link ParallelMapperImpl}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class AffinityBenchmark {
+    private static final Monoid<Long> SUM = Monoid.of(0L, Long::sum);
+
+    @Param({"1", "2", "4", "8", "16"})
+    private int threads;
+
+    @Param({"4000000"})
+    private int size;
+
+    @Param({"affinity", "shared"})
+    private String mapperType;
+
+    private List<Integer> list;
+    private ParallelMapper mapper;
+    private IterativeParallelism parallelism;
+
+    @Setup
+    public void setUp() {
+        list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(i);
+        }
+        mapper = mapperType.equals("affinity") ? new AffinityParallelMapper(threads) : new ParallelMapperImpl(threads);
+        parallelism = new IterativeParallelism(mapper);
+    }
+
+    @TearDown
+    public void tearDown() {
+        mapper.close();
+    }
+
+    @Benchmark
+    public long repeatedScan() throws InterruptedException {
+        return parallelism.mapReduce(threads, list, Integer::longValue, SUM);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AffinityBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,115 @@
+package ru.ifmo.rain.khusainov.concurrent.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.ifmo.rain.khusainov.concurrent.IterativeParallelism;
+import ru.ifmo.rain.khusainov.concurrent.ParallelMapperImpl;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the execution paths of {@link IterativeParallelism} with {@code parallelStream()}:
+ * <ul>
+ * <li>{@code pool} &mdash; built-in pool, static splitting;</li>
+ * <li>{@code adaptive} &mdash; built-in pool, adaptive splitting;</li>
+ * <li>{@code mapper} &mdash; a {@link ParallelMapperImpl} with {@code threads} workers;</li>
+ * <li>{@code stream} &mdash; {@code parallelStream()} on the common pool, ignoring {@code threads}.</li>
+ * </ul>
+ * Both built-in pool paths use sequential threshold 0, so every {@code size} is split across {@code threads}.
+ * Throughput and sampled per-call latency are reported together; sweeping {@code threads} gives the scalability curve.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IterativeParallelismBenchmark {
+    @Param({"1", "2", "4", "8", "16"})
+    private int threads;
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    @Param({"TRIVIAL", "HEAVY", "SKEWED"})
+    private Workload workload;
+
+    @Param({"pool", "adaptive", "mapper", "stream"})
+    private String path;
+
+    private List<Integer> list;
+    private ParallelMapperImpl mapper;
+    private IterativeParallelism parallelism;
+
+    @Setup
+    public void setUp() {
+        list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(i);
+        }
+        switch (path) {
+            case "pool":
+                parallelism = new IterativeParallelism(0, IterativeParallelism.Splitting.STATIC);
+                break;
+            case "adaptive":
+                parallelism = new IterativeParallelism(0, IterativeParallelism.Splitting.ADAPTIVE);
+                break;
+            case "mapper":
+                mapper = new ParallelMapperImpl(threads);
+                parallelism = new IterativeParallelism(mapper);
+                break;
+            default:
+                parallelism = null;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (mapper != null) {
+            mapper.close();
+        }
+    }
+
+    @Benchmark
+    public List<Integer> filter() throws InterruptedException {
+        if (parallelism == null) {
+            return list.parallelStream().filter(v -> workload.test(v, size)).collect(Collectors.toList());
+        }
+        return parallelism.filter(threads, list, v -> workload.test(v, size));
+    }
+
+    @Benchmark
+    public List<Long> map() throws InterruptedException {
+        if (parallelism == null) {
+            return list.parallelStream().map(v -> workload.apply(v, size)).collect(Collectors.toList());
+        }
+        return parallelism.map(threads, list, v -> workload.apply(v, size));
+    }
+
+    @Benchmark
+    public Integer maximum() throws InterruptedException {
+        final Comparator<Integer> comparator = Comparator.comparingLong(v -> workload.apply(v, size));
+        if (parallelism == null) {
+            return list.parallelStream().max(comparator).orElse(null);
+        }
+        return parallelism.maximum(threads, list, comparator);
+    }
+
+    @Benchmark
+    public boolean all() throws InterruptedException {
+        if (parallelism == null) {
+            return list.parallelStream().allMatch(v -> workload.test(v, size) || v >= 0);
+        }
+        return parallelism.all(threads, list, v -> workload.test(v, size) || v >= 0);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(IterativeParallelismBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,73 @@
+package ru.ifmo.rain.khusainov.concurrent.benchmark;
+
+import info.kgeorgiy.java.advanced.mapper.ParallelMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.ifmo.rain.khusainov.concurrent.AffinityParallelMapper;
+import ru.ifmo.rain.khusainov.concurrent.ParallelMapperImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Measures element-wise {@link ParallelMapper#map} for both mapper implementations against a
+ * {@code parallelStream()} baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelMapperBenchmark {
+    @Param({"1", "2", "4", "8", "16"})
+    private int threads;
+
+    @Param({"100", "10000", "1000000"})
+    private int size;
+
+    @Param({"TRIVIAL", "HEAVY", "SKEWED"})
+    private Workload workload;
+
+    @Param({"queue", "affinity", "stream"})
+    private String path;
+
+    private List<Integer> list;
+    private ParallelMapper mapper;
+
+    @Setup
+    public void setUp() {
+        list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(i);
+        }
+        if (path.equals("queue")) {
+            mapper = new ParallelMapperImpl(threads);
+        } else if (path.equals("affinity")) {
+            mapper = new AffinityParallelMapper(threads);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (mapper != null) {
+            mapper.close();
+        }
+    }
+
+    @Benchmark
+    public List<Long> map() throws InterruptedException {
+        if (mapper == null) {
+            return list.parallelStream().map(v -> workload.apply(v, size)).collect(Collectors.toList());
+        }
+        return mapper.map(v -> workload.apply(v, size), list);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ParallelMapperBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,48 @@
+package ru.ifmo.rain.khusainov.concurrent.benchmark;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Per-element cost models. {@link #SKEWED} is as cheap as {@link #TRIVIAL} except for the first
+ * sixteenth of the values, which cost as much as {@link #HEAVY} each.
+ */
+public enum Workload {
+    TRIVIAL {
+        @Override
+        long cost(int value, int size) {
+            return 0;
+        }
+    },
+    HEAVY {
+        @Override
+        long cost(int value, int size) {
+            return HEAVY_TOKENS;
+        }
+    },
+    SKEWED {
+        @Override
+        long cost(int value, int size) {
+            return value < size / 16 ? HEAVY_TOKENS : 0;
+        }
+    };
+
+    private static final long HEAVY_TOKENS = 200;
+
+    abstract long cost(int value, int size);
+
+    boolean test(int value, int size) {
+        final long tokens = cost(value, size);
+        if (tokens > 0) {
+            Blackhole.consumeCPU(tokens);
+        }
+        return (value & 3) == 0;
+    }
+
+    long apply(int value, int size) {
+        final long tokens = cost(value, size);
+        if (tokens > 0) {
+            Blackhole.consumeCPU(tokens);
+        }
+        return value * 31L;
+    }
+}
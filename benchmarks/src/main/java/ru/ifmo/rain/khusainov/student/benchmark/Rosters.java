@@ -0,0 +1,67 @@
+package ru.ifmo.rain.khusainov.student.benchmark;
+
+import info.kgeorgiy.java.advanced.student.Student;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic rosters. Names are random capitalized words drawn uniformly from dictionaries of the
+ * given cardinality, so the number of distinct first and last names and of groups can be tuned independently.
+ */
+public final class Rosters {
+    /**
+     * Seed of the generator, fixed so every run measures the same roster.
+     */
+    private static final long SEED = 0x5EED;
+
+    /**
+     * Not instantiable.
+     */
+    private Rosters() {
+    }
+
+    /**
+     * Generates a roster. Ids are drawn from {@code [1, size]}, so some of them repeat.
+     *
+     * @param size   number of students
+     * @param groups number of distinct groups
+     * @param names  number of distinct first names and of distinct last names
+     * @return generated students
+     */
+    public static List<Student> generate(int size, int groups, int names) {
+        final Random random = new Random(SEED);
+        final String[] firstNames = words(random, names);
+        final String[] lastNames = words(random, names);
+        final List<Student> students = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            students.add(new Student(
+                    random.nextInt(size) + 1,
+                    firstNames[random.nextInt(names)],
+                    lastNames[random.nextInt(names)],
+                    "M" + (3000 + random.nextInt(groups))));
+        }
+        return students;
+    }
+
+    /**
+     * Generates a dictionary of capitalized words of 3 to 10 letters.
+     *
+     * @param random source of randomness
+     * @param count  number of words
+     * @return generated words, possibly repeating
+     */
+    private static String[] words(Random random, int count) {
+        final String[] words = new String[count];
+        for (int i = 0; i < count; i++) {
+            final char[] word = new char[3 + random.nextInt(8)];
+            word[0] = (char) ('A' + random.nextInt(26));
+            for (int j = 1; j < word.length; j++) {
+                word[j] = (char) ('a' + random.nextInt(26));
+            }
+            words[i] = new String(word);
+        }
+        return words;
+    }
+}
@@ -0,0 +1,313 @@
+package ru.ifmo.rain.khusainov.student.benchmark;
+
+import info.kgeorgiy.java.advanced.student.Group;
+import info.kgeorgiy.java.advanced.student.Student;
+import info.kgeorgiy.java.advanced.student.StudentGroupQuery;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.ifmo.rain.khusainov.student.IndexedStudentDB;
+import ru.ifmo.rain.khusainov.student.StudentDB;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures every {@link StudentGroupQuery} method on synthetic rosters from {@link Rosters}. {@link #main} runs it
+ * with the {@code gc} profiler, which reports the allocation rate next to the throughput.
+ * <p>
+ * Every element of every result is passed to a {@link Blackhole}, so the lazy views returned by
+ * {@link IndexedStudentDB} are measured together with the work they defer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class StudentDBBenchmark {
+    /**
+     * Number of students in the roster.
+     */
+    @Param({"10000", "1000000", "10000000"})
+    private int size;
+
+    /**
+     * Number of distinct groups.
+     */
+    @Param({"10", "1000"})
+    private int groups;
+
+    /**
+     * Number of distinct first names and of distinct last names.
+     */
+    @Param({"16", "10000"})
+    private int names;
+
+    /**
+     * Implementation under test: sequential or parallel {@link StudentDB}, or {@link IndexedStudentDB}.
+     */
+    @Param({"sequential", "parallel", "indexed"})
+    private String path;
+
+    /**
+     * Implementation selected by {@link #path}.
+     */
+    private StudentGroupQuery db;
+
+    /**
+     * Queried students; for the {@code indexed} path, the indexed roster itself.
+     */
+    private List<Student> students;
+
+    /**
+     * First name of a student from the roster.
+     */
+    private String firstName;
+
+    /**
+     * Last name of a student from the roster.
+     */
+    private String lastName;
+
+    /**
+     * Group of a student from the roster.
+     */
+    private String group;
+
+    /**
+     * Generates the roster and creates the implementation selected by {@link #path}.
+     */
+    @Setup
+    public void setUp() {
+        students = Rosters.generate(size, groups, names);
+        if (path.equals("indexed")) {
+            final IndexedStudentDB indexed = new IndexedStudentDB(students);
+            students = indexed.getStudents();
+            db = indexed;
+        } else if (path.equals("parallel")) {
+            db = new StudentDB(1 << 13);
+        } else {
+            db = new StudentDB();
+        }
+        final Student sample = students.get(students.size() / 2);
+        firstName = sample.getFirstName();
+        lastName = sample.getLastName();
+        group = sample.getGroup();
+    }
+
+    /**
+     * Passes every element of {@code values} to {@code bh}.
+     *
+     * @param values result of a query
+     * @param bh     blackhole of the benchmark
+     */
+    private static void consume(Collection<?> values, Blackhole bh) {
+        for (Object value : values) {
+            bh.consume(value);
+        }
+    }
+
+    /**
+     * Passes every key and value of {@code values} to {@code bh}.
+     *
+     * @param values result of a query
+     * @param bh     blackhole of the benchmark
+     */
+    private static void consume(Map<?, ?> values, Blackhole bh) {
+        for (Map.Entry<?, ?> entry : values.entrySet()) {
+            bh.consume(entry.getKey());
+            bh.consume(entry.getValue());
+        }
+    }
+
+    /**
+     * Passes every group of {@code values} and every student of it to {@code bh}.
+     *
+     * @param values result of a query
+     * @param bh     blackhole of the benchmark
+     */
+    private static void consumeGroups(List<Group> values, Blackhole bh) {
+        for (Group value : values) {
+            bh.consume(value.getName());
+            consume(value.getStudents(), bh);
+        }
+    }
+
+    /**
+     * Measures {@link StudentGroupQuery#getFirstNames}.
+     *
+     * @param bh blackhole of the benchmark
+     */
+    @Benchmark
+    public void getFirstNames(Blackhole bh) {
+        consume(db.getFirstNames(students), bh);
+    }
+
+    /**
+     * Measures {@link StudentGroupQuery#getLastNames}.
+     *
+     * @param bh blackhole of the benchmark
+     */
+    @Benchmark
+    public void getLastNames(Blackhole bh) {
+        consume(db.getLastNames(students), bh);
+    }
+
+    /**
+     * Measures {@link StudentGroupQuery#getGroups}.
+     *
+     * @param bh blackhole of the benchmark
+     */
+    @Benchmark
+    public void getGroups(Blackhole bh) {
+        consume(db.getGroups(students), bh);
+    }
+
+    /**
+     * Measures {@link StudentGroupQuery#getFullNames}.
+     *
+     * @param bh blackhole of the benchmark
+     */
+    @Benchmark
+    public void getFullNames(Blackhole bh) {
+        consume(db.getFullNames(students), bh);
+    }
+
+    /**
+     * Measures {@link StudentGroupQuery#getDistinctFirstNames}.
+     *
+     * @param bh blackhole of the benchmark
+     */
+    @Benchmark
+    public void getDistinctFirstNames(Blackhole bh) {
+        consume(db.getDistinctFirstNames(students), bh);
+    }
+
+    /**
+     * Measures {@link StudentGroupQuery#getMinStudentFirstName}.
+     *
+     * @return first name of the student with the least id
+     */
+    @Benchmark
+    public String getMinStudentFirstName() {
+        return db.getMinStudentFirstName(students);
+    }
+
+    /**
+     * Measures {@link StudentGroupQuery#sortStudentsById}.
+     *
+     * @param bh blackhole of the benchmark
+     */
+    @Benchmark
+    public void sortStudentsById(Blackhole bh) {
+        consume(db.sortStudentsById(students), bh);
+    }
+
+    /**
+     * Measures {@link StudentGroupQuery#sortStudentsByName}.
+     *
+     * @param bh blackhole of the benchmark
+     */
+    @Benchmark
+    public void sortStudentsByName(Blackhole bh) {
+        consume(db.sortStudentsByName(students), bh);
+    }
+
+    /**
+     * Measures {@link StudentGroupQuery#findStudentsByFirstName}.
+     *
+     * @param bh blackhole of the benchmark
+     */
+    @Benchmark
+    public void findStudentsByFirstName(Blackhole bh) {
+        consume(db.findStudentsByFirstName(students, firstName), bh);
+    }
+
+    /**
+     * Measures {@link StudentGroupQuery#findStudentsByLastName}.
+     *
+     * @param bh blackhole of the benchmark
+     */
+    @Benchmark
+    public void findStudentsByLastName(Blackhole bh) {
+        consume(db.findStudentsByLastName(students, lastName), bh);
+    }
+
+    /**
+     * Measures {@link StudentGroupQuery#findStudentsByGroup}.
+     *
+     * @param bh blackhole of the benchmark
+     */
+    @Benchmark
+    public void findStudentsByGroup(Blackhole bh) {
+        consume(db.findStudentsByGroup(students, group), bh);
+    }
+
+    /**
+     * Measures {@link StudentGroupQuery#findStudentNamesByGroup}.
+     *
+     * @param bh blackhole of the benchmark
+     */
+    @Benchmark
+    public void findStudentNamesByGroup(Blackhole bh) {
+        consume(db.findStudentNamesByGroup(students, group), bh);
+    }
+
+    /**
+     * Measures {@link StudentGroupQuery#getGroupsByName}.
+     *
+     * @param bh blackhole of the benchmark
+     */
+    @Benchmark
+    public void getGroupsByName(Blackhole bh) {
+        consumeGroups(db.getGroupsByName(students), bh);
+    }
+
+    /**
+     * Measures {@link StudentGroupQuery#getGroupsById}.
+     *
+     * @param bh blackhole of the benchmark
+     */
+    @Benchmark
+    public void getGroupsById(Blackhole bh) {
+        consumeGroups(db.getGroupsById(students), bh);
+    }
+
+    /**
+     * Measures {@link StudentGroupQuery#getLargestGroup}.
+     *
+     * @return name of the largest group
+     */
+    @Benchmark
+    public String getLargestGroup() {
+        return db.getLargestGroup(students);
+    }
+
+    /**
+     * Measures {@link StudentGroupQuery#getLargestGroupFirstName}.
+     *
+     * @return name of the group with the most distinct first names
+     */
+    @Benchmark
+    public String getLargestGroupFirstName() {
+        return db.getLargestGroupFirstName(students);
+    }
+
+    /**
+     * Runs the benchmark with the {@code gc} profiler.
+     *
+     * @param args ignored
+     * @throws RunnerException if the benchmark fails
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(StudentDBBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
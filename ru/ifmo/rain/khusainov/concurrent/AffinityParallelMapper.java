@@ -0,0 +1,59 @@
+package ru.ifmo.rain.khusainov.concurrent;
+
+import info.kgeorgiy.java.advanced.mapper.ParallelMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Runs the {@code i}-th argument of every {@link #map} call on worker {@code i % threads}.
+ * Together with the static splitting of {@link IterativeParallelism}, repeated calls over the same list
+ * hand every contiguous range to the same thread, which keeps that range in the thread's caches.
+ * Each worker is a single-threaded {@link ParallelMapperImpl}, so calls after {@link #close} are rejected the same way.
+ */
+public class AffinityParallelMapper implements ParallelMapper {
+    private final List<ParallelMapperImpl> workers;
+
+    public AffinityParallelMapper(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Expected positive number of threads, got " + threads);
+        }
+        workers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            workers.add(new ParallelMapperImpl(1));
+        }
+    }
+
+    @Override
+    public <T, R> List<R> map(Function<? super T, ? extends R> f, List<? extends T> args) throws InterruptedException {
+        final int n = Math.min(workers.size(), args.size());
+        final List<CompletableFuture<List<R>>> parts = new ArrayList<>(n);
+        try {
+            for (int w = 0; w < n; w++) {
+                final List<T> part = new ArrayList<>(args.size() / n + 1);
+                for (int i = w; i < args.size(); i += workers.size()) {
+                    part.add(args.get(i));
+                }
+                parts.add(workers.get(w).mapAsync(f, part));
+            }
+            final List<List<R>> results = new ArrayList<>(n);
+            for (final CompletableFuture<List<R>> part : parts) {
+                results.add(Futures.get(part));
+            }
+            final List<R> result = new ArrayList<>(args.size());
+            for (int i = 0; i < args.size(); i++) {
+                result.add(results.get(i % workers.size()).get(i / workers.size()));
+            }
+            return result;
+        } finally {
+            parts.forEach(part -> part.cancel(false));
+        }
+    }
+
+    @Override
+    public void close() {
+        workers.forEach(ParallelMapperImpl::close);
+    }
+}
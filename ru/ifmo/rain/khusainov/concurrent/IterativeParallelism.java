@@ -3,119 +3,608 @@ package ru.ifmo.rain.khusainov.concurrent;
 import info.kgeorgiy.java.advanced.concurrent.ListIP;
 import info.kgeorgiy.java.advanced.mapper.ParallelMapper;
 
+import java.lang.reflect.Array;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleUnaryOperator;
 import java.util.function.Function;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongPredicate;
+import java.util.function.LongUnaryOperator;
 import java.util.function.Predicate;
+import java.util.stream.Collector;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+/**
+ * Without a {@link ParallelMapper}, chunks run on a pool of daemon workers shared by all instances. It is started
+ * lazily, grows up to {@link #MAX_WORKERS} workers as callers ask for more {@code threads}, and stops workers after
+ * {@link #KEEP_ALIVE_SECONDS} of idleness. Chunks that find no free worker are not queued: the calling thread runs them
+ * itself, so a saturated pool or a nested call never waits for another caller's chunks.
+ * <p>
+ * By default every chunk gets at least {@link #MIN_CHUNK_SIZE} elements, so short lists run on the calling thread and
+ * longer ones use no more threads than pays off the hand-off to a worker. An explicit sequential threshold replaces
+ * this rule: shorter lists run sequentially and longer ones are always split into {@code threads} chunks.
+ */
 public class IterativeParallelism implements ListIP {
+    private static final int CHUNKS_PER_THREAD = 8;
+    private static final int MIN_CHUNK_SIZE = 1 << 11;
+    private static final int MAX_WORKERS = 16 * Runtime.getRuntime().availableProcessors();
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    public enum Splitting {
+        STATIC, ADAPTIVE
+    }
+
+    private static final class Workers {
+        static final ExecutorService POOL = new ThreadPoolExecutor(0, MAX_WORKERS, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), runnable -> {
+                    final Thread thread = new Thread(runnable);
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
     private final ParallelMapper mapper;
+    private final int sequentialThreshold;
+    private final int minChunkSize;
+    private final Splitting splitting;
 
-    public IterativeParallelism(ParallelMapper mapper) {
+    private IterativeParallelism(ParallelMapper mapper, int sequentialThreshold, int minChunkSize, Splitting splitting) {
         this.mapper = mapper;
+        this.sequentialThreshold = sequentialThreshold;
+        this.minChunkSize = minChunkSize;
+        this.splitting = splitting;
+    }
+
+    public IterativeParallelism(ParallelMapper mapper, Splitting splitting) {
+        this(mapper, 0, 1, splitting);
+    }
+
+    public IterativeParallelism(ParallelMapper mapper) {
+        this(mapper, Splitting.STATIC);
+    }
+
+    public IterativeParallelism(int sequentialThreshold, Splitting splitting) {
+        this(null, sequentialThreshold, 1, splitting);
+    }
+
+    public IterativeParallelism(int sequentialThreshold) {
+        this(sequentialThreshold, Splitting.STATIC);
+    }
+
+    public IterativeParallelism(Splitting splitting) {
+        this(null, 0, MIN_CHUNK_SIZE, splitting);
     }
 
     public IterativeParallelism() {
-        mapper = null;
-    }
-
-    private static <T> List<Stream<? extends T>> split(final int threads, final List<? extends T> list) {
-        final int n = Math.min(threads, list.size());
-        final int len = list.size() / n;
-        int g = list.size() % n;
-        List<Stream<? extends T>> subStreams = new ArrayList<>();
-        for (int cur = 0; cur < list.size(); g--) {
-            final int prev = cur;
-            cur += len + (g > 0 ? 1 : 0);
-            subStreams.add(list.subList(prev, cur).stream());
-        }
-        return subStreams;
-    }
-
-    private static void joinThreads(final List<Thread> threads) throws InterruptedException {
-        InterruptedException exception = null;
-        for (final Thread thread : threads) {
-            try {
-                thread.join();
-            } catch (InterruptedException e) {
-                if (exception == null) {
-                    exception = new InterruptedException("One or more threads were not joined");
-                }
-                exception.addSuppressed(e);
-            }
+        this(Splitting.STATIC);
+    }
+
+    private int[] bounds(final int threads, final int size) {
+        int chunks = threads > 1 && splitting == Splitting.ADAPTIVE ? threads * CHUNKS_PER_THREAD : threads;
+        if (mapper == null) {
+            chunks = size < sequentialThreshold ? 1 : Math.min(chunks, size / minChunkSize);
         }
-        if (exception != null) {
-            throw exception;
+        final int n = Math.max(1, Math.min(chunks, size));
+        final int len = size / n;
+        int g = size % n;
+        final int[] bounds = new int[n + 1];
+        for (int i = 1; i <= n; i++, g--) {
+            bounds[i] = bounds[i - 1] + len + (g > 0 ? 1 : 0);
         }
+        return bounds;
     }
 
-    private <T, R> R baseSupply(int threads, final List<? extends T> list,
-                                final Function<Stream<? extends T>, ? extends R> function,
-                                final Function<? super Stream<R>, R> resultCollector) throws InterruptedException {
-        final List<R> result;
-        final List<Stream<? extends T>> subStreams = split(threads, list);
+    private <T> List<List<? extends T>> split(final int threads, final List<? extends T> list) {
+        final int[] bounds = bounds(threads, list.size());
+        List<List<? extends T>> subLists = new ArrayList<>(bounds.length - 1);
+        for (int i = 1; i < bounds.length; i++) {
+            subLists.add(list.subList(bounds[i - 1], bounds[i]));
+        }
+        return subLists;
+    }
+
+    private static List<Integer> indices(final int size) {
+        return IntStream.range(0, size).boxed().collect(Collectors.toList());
+    }
+
+    private <A, R> List<R> run(final Function<? super A, ? extends R> function,
+                               final List<? extends A> args) throws InterruptedException {
         if (mapper != null) {
-            result = mapper.map(function, subStreams);
-        } else {
+            return mapper.map(function, args);
+        }
+        final List<FutureTask<R>> tasks = new ArrayList<>(args.size() - 1);
+        for (final A arg : args.subList(1, args.size())) {
+            final FutureTask<R> task = new FutureTask<>(() -> function.apply(arg));
+            tasks.add(task);
+            Workers.POOL.execute(task);
+        }
+        final List<R> result = new ArrayList<>(args.size());
+        try {
+            result.add(function.apply(args.get(0)));
+            // runs the chunks no worker has taken; running a started or done task does nothing
+            tasks.forEach(FutureTask::run);
+            for (final FutureTask<R> task : tasks) {
+                result.add(task.get());
+            }
+        } catch (ExecutionException e) {
+            throw Futures.unchecked(e);
+        } finally {
+            tasks.forEach(task -> task.cancel(false));
+        }
+        return result;
+    }
 
-            result = new ArrayList<>(Collections.nCopies(subStreams.size(), null));
-            final List<Thread> myThreads = IntStream.range(0, subStreams.size())
-                    .mapToObj(threadPosition ->
-                            new Thread(() -> result.set(threadPosition, function.apply(subStreams.get(threadPosition)))))
-                    .collect(Collectors.toList());
-            myThreads.forEach(Thread::start);
-            joinThreads(myThreads);
+    private <A, R> List<R> apply(final int threads, final Function<? super A, ? extends R> function,
+                                 final List<? extends A> args) throws InterruptedException {
+        final int workers = Math.max(1, Math.min(threads, args.size()));
+        if (workers == args.size()) {
+            return run(function, args);
         }
+        final List<R> result = new ArrayList<>(Collections.nCopies(args.size(), null));
+        final AtomicInteger next = new AtomicInteger();
+        run(worker -> {
+            for (int i = next.getAndIncrement(); i < args.size(); i = next.getAndIncrement()) {
+                result.set(i, function.apply(args.get(i)));
+            }
+            return null;
+        }, indices(workers));
+        return result;
+    }
 
+    @FunctionalInterface
+    private interface RangeFunction<R> {
+        R apply(int from, int to);
+    }
+
+    private <R> List<R> applyRanges(final int threads, final int size,
+                                    final RangeFunction<? extends R> function) throws InterruptedException {
+        final int[] bounds = bounds(threads, size);
+        return apply(threads, i -> function.apply(bounds[i], bounds[i + 1]), indices(bounds.length - 1));
+    }
+
+    private static <A> A concat(final List<A> parts, final IntFunction<A> arrayFactory) {
+        int length = 0;
+        for (final A part : parts) {
+            length += Array.getLength(part);
+        }
+        final A result = arrayFactory.apply(length);
+        int position = 0;
+        for (final A part : parts) {
+            final int partLength = Array.getLength(part);
+            System.arraycopy(part, 0, result, position, partLength);
+            position += partLength;
+        }
+        return result;
+    }
+
+    private <T, R> R baseSupply(int threads, final List<? extends T> list,
+                                final Function<Stream<? extends T>, ? extends R> function,
+                                final Function<? super Stream<R>, R> resultCollector) throws InterruptedException {
+        final List<R> result = apply(threads, subList -> function.apply(subList.stream()), split(threads, list));
         return resultCollector.apply(result.stream());
     }
 
+    /**
+     * @throws NoSuchElementException if {@code list} is empty
+     */
     @Override
     public <T> T maximum(int threads, List<? extends T> list, Comparator<? super T> comparator) throws InterruptedException {
+        if (list.isEmpty()) {
+            throw new NoSuchElementException("Maximum of an empty list");
+        }
         Function<Stream<? extends T>, T> function = s -> s.max(comparator).orElse(null);
         return baseSupply(threads, list, function, function);
     }
 
+    /**
+     * @throws NoSuchElementException if {@code list} is empty
+     */
     @Override
     public <T> T minimum(int threads, List<? extends T> list, Comparator<? super T> comparator) throws InterruptedException {
+        if (list.isEmpty()) {
+            throw new NoSuchElementException("Minimum of an empty list");
+        }
         return maximum(threads, list, comparator.reversed());
     }
 
     @Override
     public <T> boolean all(int threads, List<? extends T> list, Predicate<? super T> predicate) throws InterruptedException {
-        Function<Stream<? extends T>, Boolean> function = s -> s.allMatch(predicate);
-        Function<Stream<Boolean>, Boolean> merger = s -> s.allMatch(Boolean::booleanValue);
-        return baseSupply(threads, list, function, merger);
+        return !any(threads, list, predicate.negate());
     }
 
     @Override
     public <T> boolean any(int threads, List<? extends T> list, Predicate<? super T> predicate) throws InterruptedException {
-        return !all(threads, list, predicate.negate());
+        final AtomicBoolean found = new AtomicBoolean();
+        Function<Stream<? extends T>, Boolean> function = s -> {
+            if (s.anyMatch(e -> found.get() || predicate.test(e))) {
+                found.set(true);
+                return true;
+            }
+            return false;
+        };
+        Function<Stream<Boolean>, Boolean> merger = s -> s.anyMatch(Boolean::booleanValue);
+        return baseSupply(threads, list, function, merger);
+    }
+
+    public <T> Optional<T> findFirst(int threads, List<? extends T> list, Predicate<? super T> predicate) throws InterruptedException {
+        final List<List<? extends T>> subLists = split(threads, list);
+        final AtomicInteger firstFound = new AtomicInteger(subLists.size());
+        Function<Integer, Optional<T>> function = index -> {
+            final Optional<T> result = subLists.get(index).stream()
+                    .takeWhile(e -> firstFound.get() > index)
+                    .filter(predicate)
+                    .<T>map(Function.identity())
+                    .findFirst();
+            if (result.isPresent()) {
+                firstFound.accumulateAndGet(index, Math::min);
+            }
+            return result;
+        };
+        return firstPresent(apply(threads, function, indices(subLists.size())));
+    }
+
+    public <T> Optional<T> findAny(int threads, List<? extends T> list, Predicate<? super T> predicate) throws InterruptedException {
+        final AtomicBoolean found = new AtomicBoolean();
+        Function<List<? extends T>, Optional<T>> function = subList -> {
+            final Optional<T> result = subList.stream()
+                    .takeWhile(e -> !found.get())
+                    .filter(predicate)
+                    .<T>map(Function.identity())
+                    .findFirst();
+            if (result.isPresent()) {
+                found.set(true);
+            }
+            return result;
+        };
+        return firstPresent(apply(threads, function, split(threads, list)));
+    }
+
+    private static <T> Optional<T> firstPresent(final List<Optional<T>> results) {
+        return results.stream()
+                .filter(Optional::isPresent)
+                .findFirst()
+                .orElse(Optional.empty());
+    }
+
+    public <T, R> R mapReduce(int threads, List<? extends T> list,
+                              Function<? super T, ? extends R> mapper, Monoid<R> monoid) throws InterruptedException {
+        final List<R> result = apply(threads, subList -> {
+            R accumulator = monoid.identity();
+            for (final T element : subList) {
+                accumulator = monoid.apply(accumulator, mapper.apply(element));
+            }
+            return accumulator;
+        }, split(threads, list));
+        return result.stream().reduce(monoid.identity(), monoid);
+    }
+
+    public <T, A, R> R collect(int threads, List<? extends T> list,
+                               Collector<? super T, A, R> collector) throws InterruptedException {
+        final List<A> result = apply(threads, subList -> {
+            final A container = collector.supplier().get();
+            for (final T element : subList) {
+                collector.accumulator().accept(container, element);
+            }
+            return container;
+        }, split(threads, list));
+        A container = result.get(0);
+        for (final A part : result.subList(1, result.size())) {
+            container = collector.combiner().apply(container, part);
+        }
+        return collector.finisher().apply(container);
     }
 
     @Override
     public String join(int threads, List<?> list) throws InterruptedException {
-        Function<Stream<?>, String> function = s -> s.map(Object::toString).collect(Collectors.joining());
-        Function<Stream<String>, String> merger = s -> s.collect(Collectors.joining());
-        return baseSupply(threads, list, function, merger);
+        final List<String> result = apply(threads, subList -> {
+            final StringBuilder builder = new StringBuilder();
+            for (final Object element : subList) {
+                builder.append(element);
+            }
+            return builder.toString();
+        }, split(threads, list));
+        final StringBuilder builder = new StringBuilder(result.stream().mapToInt(String::length).sum());
+        result.forEach(builder::append);
+        return builder.toString();
     }
 
     @Override
     public <T> List<T> filter(int threads, List<? extends T> list, Predicate<? super T> predicate) throws InterruptedException {
-        Function<Stream<? extends T>, List<T>> function = s -> s.filter(predicate).collect(Collectors.toList());
-        Function<Stream<List<T>>, List<T>> merger = s -> s.flatMap(List::stream).collect(Collectors.toList());
-        return baseSupply(threads, list, function, merger);
+        final List<List<T>> result = apply(threads, subList -> {
+            final List<T> matched = new ArrayList<>();
+            for (final T element : subList) {
+                if (predicate.test(element)) {
+                    matched.add(element);
+                }
+            }
+            return matched;
+        }, split(threads, list));
+        final List<T> filtered = new ArrayList<>(result.stream().mapToInt(List::size).sum());
+        result.forEach(filtered::addAll);
+        return filtered;
     }
 
     @Override
     public <T, U> List<U> map(int threads, List<? extends T> list, Function<? super T, ? extends U> mapper) throws InterruptedException {
-        Function<Stream<? extends T>, List<U>> function = s -> s.map(mapper).collect(Collectors.toList());
-        Function<Stream<List<U>>, List<U>> merger = s -> s.flatMap(List::stream).collect(Collectors.toList());
-        return baseSupply(threads, list, function, merger);
+        final List<U> result = new ArrayList<>(Collections.nCopies(list.size(), null));
+        applyRanges(threads, list.size(), (from, to) -> {
+            int index = from;
+            for (final T element : list.subList(from, to)) {
+                result.set(index++, mapper.apply(element));
+            }
+            return null;
+        });
+        return result;
+    }
+
+    public OptionalInt maximum(int threads, int[] values) throws InterruptedException {
+        if (values.length == 0) {
+            return OptionalInt.empty();
+        }
+        final List<Integer> result = applyRanges(threads, values.length, (from, to) -> {
+            int max = values[from];
+            for (int i = from + 1; i < to; i++) {
+                max = Math.max(max, values[i]);
+            }
+            return max;
+        });
+        return result.stream().mapToInt(Integer::intValue).max();
+    }
+
+    public OptionalInt minimum(int threads, int[] values) throws InterruptedException {
+        if (values.length == 0) {
+            return OptionalInt.empty();
+        }
+        final List<Integer> result = applyRanges(threads, values.length, (from, to) -> {
+            int min = values[from];
+            for (int i = from + 1; i < to; i++) {
+                min = Math.min(min, values[i]);
+            }
+            return min;
+        });
+        return result.stream().mapToInt(Integer::intValue).min();
+    }
+
+    public int sum(int threads, int[] values) throws InterruptedException {
+        final List<Integer> result = applyRanges(threads, values.length, (from, to) -> {
+            int sum = 0;
+            for (int i = from; i < to; i++) {
+                sum += values[i];
+            }
+            return sum;
+        });
+        return result.stream().mapToInt(Integer::intValue).sum();
+    }
+
+    public int count(int threads, int[] values, IntPredicate predicate) throws InterruptedException {
+        final List<Integer> result = applyRanges(threads, values.length, (from, to) -> {
+            int count = 0;
+            for (int i = from; i < to; i++) {
+                if (predicate.test(values[i])) {
+                    count++;
+                }
+            }
+            return count;
+        });
+        return result.stream().mapToInt(Integer::intValue).sum();
+    }
+
+    public int[] filter(int threads, int[] values, IntPredicate predicate) throws InterruptedException {
+        final List<int[]> result = applyRanges(threads, values.length, (from, to) -> {
+            final int[] buffer = new int[to - from];
+            int size = 0;
+            for (int i = from; i < to; i++) {
+                if (predicate.test(values[i])) {
+                    buffer[size++] = values[i];
+                }
+            }
+            return Arrays.copyOf(buffer, size);
+        });
+        return concat(result, int[]::new);
+    }
+
+    public int reduce(int threads, int[] values, int identity, IntBinaryOperator op) throws InterruptedException {
+        return mapReduce(threads, values, IntUnaryOperator.identity(), identity, op);
+    }
+
+    public int mapReduce(int threads, int[] values, IntUnaryOperator mapper,
+                         int identity, IntBinaryOperator op) throws InterruptedException {
+        final List<Integer> result = applyRanges(threads, values.length, (from, to) -> {
+            int accumulator = identity;
+            for (int i = from; i < to; i++) {
+                accumulator = op.applyAsInt(accumulator, mapper.applyAsInt(values[i]));
+            }
+            return accumulator;
+        });
+        return result.stream().mapToInt(Integer::intValue).reduce(identity, op);
+    }
+
+    public OptionalLong maximum(int threads, long[] values) throws InterruptedException {
+        if (values.length == 0) {
+            return OptionalLong.empty();
+        }
+        final List<Long> result = applyRanges(threads, values.length, (from, to) -> {
+            long max = values[from];
+            for (int i = from + 1; i < to; i++) {
+                max = Math.max(max, values[i]);
+            }
+            return max;
+        });
+        return result.stream().mapToLong(Long::longValue).max();
+    }
+
+    public OptionalLong minimum(int threads, long[] values) throws InterruptedException {
+        if (values.length == 0) {
+            return OptionalLong.empty();
+        }
+        final List<Long> result = applyRanges(threads, values.length, (from, to) -> {
+            long min = values[from];
+            for (int i = from + 1; i < to; i++) {
+                min = Math.min(min, values[i]);
+            }
+            return min;
+        });
+        return result.stream().mapToLong(Long::longValue).min();
+    }
+
+    public long sum(int threads, long[] values) throws InterruptedException {
+        final List<Long> result = applyRanges(threads, values.length, (from, to) -> {
+            long sum = 0;
+            for (int i = from; i < to; i++) {
+                sum += values[i];
+            }
+            return sum;
+        });
+        return result.stream().mapToLong(Long::longValue).sum();
+    }
+
+    public int count(int threads, long[] values, LongPredicate predicate) throws InterruptedException {
+        final List<Integer> result = applyRanges(threads, values.length, (from, to) -> {
+            int count = 0;
+            for (int i = from; i < to; i++) {
+                if (predicate.test(values[i])) {
+                    count++;
+                }
+            }
+            return count;
+        });
+        return result.stream().mapToInt(Integer::intValue).sum();
+    }
+
+    public long[] filter(int threads, long[] values, LongPredicate predicate) throws InterruptedException {
+        final List<long[]> result = applyRanges(threads, values.length, (from, to) -> {
+            final long[] buffer = new long[to - from];
+            int size = 0;
+            for (int i = from; i < to; i++) {
+                if (predicate.test(values[i])) {
+                    buffer[size++] = values[i];
+                }
+            }
+            return Arrays.copyOf(buffer, size);
+        });
+        return concat(result, long[]::new);
+    }
+
+    public long reduce(int threads, long[] values, long identity, LongBinaryOperator op) throws InterruptedException {
+        return mapReduce(threads, values, LongUnaryOperator.identity(), identity, op);
+    }
+
+    public long mapReduce(int threads, long[] values, LongUnaryOperator mapper,
+                          long identity, LongBinaryOperator op) throws InterruptedException {
+        final List<Long> result = applyRanges(threads, values.length, (from, to) -> {
+            long accumulator = identity;
+            for (int i = from; i < to; i++) {
+                accumulator = op.applyAsLong(accumulator, mapper.applyAsLong(values[i]));
+            }
+            return accumulator;
+        });
+        return result.stream().mapToLong(Long::longValue).reduce(identity, op);
+    }
+
+    public OptionalDouble maximum(int threads, double[] values) throws InterruptedException {
+        if (values.length == 0) {
+            return OptionalDouble.empty();
+        }
+        final List<Double> result = applyRanges(threads, values.length, (from, to) -> {
+            double max = values[from];
+            for (int i = from + 1; i < to; i++) {
+                max = Math.max(max, values[i]);
+            }
+            return max;
+        });
+        return result.stream().mapToDouble(Double::doubleValue).max();
+    }
+
+    public OptionalDouble minimum(int threads, double[] values) throws InterruptedException {
+        if (values.length == 0) {
+            return OptionalDouble.empty();
+        }
+        final List<Double> result = applyRanges(threads, values.length, (from, to) -> {
+            double min = values[from];
+            for (int i = from + 1; i < to; i++) {
+                min = Math.min(min, values[i]);
+            }
+            return min;
+        });
+        return result.stream().mapToDouble(Double::doubleValue).min();
+    }
+
+    public double sum(int threads, double[] values) throws InterruptedException {
+        final List<Double> result = applyRanges(threads, values.length, (from, to) -> {
+            double sum = 0;
+            for (int i = from; i < to; i++) {
+                sum += values[i];
+            }
+            return sum;
+        });
+        return result.stream().mapToDouble(Double::doubleValue).sum();
+    }
+
+    public int count(int threads, double[] values, DoublePredicate predicate) throws InterruptedException {
+        final List<Integer> result = applyRanges(threads, values.length, (from, to) -> {
+            int count = 0;
+            for (int i = from; i < to; i++) {
+                if (predicate.test(values[i])) {
+                    count++;
+                }
+            }
+            return count;
+        });
+        return result.stream().mapToInt(Integer::intValue).sum();
+    }
+
+    public double[] filter(int threads, double[] values, DoublePredicate predicate) throws InterruptedException {
+        final List<double[]> result = applyRanges(threads, values.length, (from, to) -> {
+            final double[] buffer = new double[to - from];
+            int size = 0;
+            for (int i = from; i < to; i++) {
+                if (predicate.test(values[i])) {
+                    buffer[size++] = values[i];
+                }
+            }
+            return Arrays.copyOf(buffer, size);
+        });
+        return concat(result, double[]::new);
+    }
+
+    public double reduce(int threads, double[] values, double identity, DoubleBinaryOperator op) throws InterruptedException {
+        return mapReduce(threads, values, DoubleUnaryOperator.identity(), identity, op);
+    }
+
+    public double mapReduce(int threads, double[] values, DoubleUnaryOperator mapper,
+                            double identity, DoubleBinaryOperator op) throws InterruptedException {
+        final List<Double> result = applyRanges(threads, values.length, (from, to) -> {
+            double accumulator = identity;
+            for (int i = from; i < to; i++) {
+                accumulator = op.applyAsDouble(accumulator, mapper.applyAsDouble(values[i]));
+            }
+            return accumulator;
+        });
+        return result.stream().mapToDouble(Double::doubleValue).reduce(identity, op);
     }
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package ru.ifmo.rain.khusainov.concurrent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bucket {@code i} counts durations in {@code [2^i, 2^(i+1))} nanoseconds; the last bucket is open-ended.
+ */
+final class LatencyHistogram {
+    static final int BUCKETS = 40;
+
+    private final LongAdder[] counts = new LongAdder[BUCKETS];
+
+    LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    void record(long nanos) {
+        final int bucket = nanos <= 0 ? 0 : 63 - Long.numberOfLeadingZeros(nanos);
+        counts[Math.min(bucket, BUCKETS - 1)].increment();
+    }
+
+    long[] snapshot() {
+        final long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts[i].sum();
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,47 @@
+package ru.ifmo.rain.khusainov.concurrent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+final class MapCall<T, R> {
+    private final Function<? super T, ? extends R> f;
+    private final List<? extends T> args;
+    private final List<R> result;
+    private final CompletableFuture<List<R>> future = new CompletableFuture<>();
+    private final AtomicInteger remaining;
+
+    MapCall(Function<? super T, ? extends R> f, List<? extends T> args) {
+        this.f = f;
+        this.args = args;
+        result = new ArrayList<>(Collections.nCopies(args.size(), null));
+        remaining = new AtomicInteger(args.size());
+        if (args.isEmpty()) {
+            future.complete(result);
+        }
+    }
+
+    CompletableFuture<List<R>> future() {
+        return future;
+    }
+
+    Runnable job(int index) {
+        return () -> {
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                result.set(index, f.apply(args.get(index)));
+            } catch (RuntimeException | Error e) {
+                future.completeExceptionally(e);
+                return;
+            }
+            if (remaining.decrementAndGet() == 0) {
+                future.complete(result);
+            }
+        };
+    }
+}
@@ -0,0 +1,10 @@
+package ru.ifmo.rain.khusainov.concurrent;
+
+/**
+ * Receives one start and one finish event per map call; {@code mapFinished} may be invoked on a worker thread.
+ */
+public interface MapTracer {
+    void mapStarted(long callId, int size, ParallelMapperImpl.Priority priority);
+
+    void mapFinished(long callId, long elapsedNanos, Throwable failure);
+}
@@ -0,0 +1,21 @@
+package ru.ifmo.rain.khusainov.concurrent;
+
+import java.util.function.BinaryOperator;
+
+public interface Monoid<T> extends BinaryOperator<T> {
+    T identity();
+
+    static <T> Monoid<T> of(final T identity, final BinaryOperator<T> operation) {
+        return new Monoid<T>() {
+            @Override
+            public T identity() {
+                return identity;
+            }
+
+            @Override
+            public T apply(T left, T right) {
+                return operation.apply(left, right);
+            }
+        };
+    }
+}
@@ -2,92 +2,394 @@ package ru.ifmo.rain.khusainov.concurrent;
 
 import info.kgeorgiy.java.advanced.mapper.ParallelMapper;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 public class ParallelMapperImpl implements ParallelMapper {
-    private final List<Thread> threads;
-    private final Queue<Runnable> jobs;
+    public static final long STUCK_TASK_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final long IDLE = Long.MIN_VALUE;
 
-    public ParallelMapperImpl(int threads) {
-        this.threads = new ArrayList<>(threads);
-        jobs = new ArrayDeque<>();
+    public enum Priority {
+        HIGH, NORMAL, LOW
+    }
+
+    private static class Job {
+        private final Runnable task;
+        private final long enqueued;
+
+        Job(Runnable task, long enqueued) {
+            this.task = task;
+            this.enqueued = enqueued;
+        }
+    }
+
+    private static class Batch {
+        private final Queue<Job> jobs = new ArrayDeque<>();
+        private final Priority priority;
+        private boolean scheduled;
 
-        Runnable runnable = () -> {
+        Batch(Priority priority) {
+            this.priority = priority;
+        }
+    }
+
+    private class Worker implements Runnable {
+        private final Thread thread = new Thread(this);
+        private volatile long busySince = IDLE;
+        private volatile long busyNanos;
+        private boolean countedIdle = true;
+
+        @Override
+        public void run() {
             try {
-                while (!Thread.currentThread().isInterrupted()) {
-                    Runnable head;
-                    synchronized (jobs) {
-                        while (jobs.isEmpty()) {
-                            jobs.wait();
-                        }
-                        head = jobs.poll();
+                Job head;
+                while (!Thread.currentThread().isInterrupted() && (head = take(this)) != null) {
+                    final long start = System.nanoTime();
+                    queueWait.record(start - head.enqueued);
+                    busySince = start;
+                    try {
+                        head.task.run();
+                    } finally {
+                        final long elapsed = System.nanoTime() - start;
+                        busySince = IDLE;
+                        busyNanos += elapsed;
+                        execution.record(elapsed);
+                        completed.increment();
                     }
-                    head.run();
                 }
             } catch (InterruptedException ignored) {
             } finally {
                 Thread.currentThread().interrupt();
             }
-        };
+        }
+    }
+
+    private class Monitor implements ParallelMapperMXBean {
+        @Override
+        public int getWorkers() {
+            return getStatistics().getWorkers();
+        }
+
+        @Override
+        public long getQueuedTasks() {
+            return getStatistics().getQueuedTasks();
+        }
+
+        @Override
+        public int getRunningTasks() {
+            return getStatistics().getRunningTasks();
+        }
+
+        @Override
+        public long getCompletedTasks() {
+            return getStatistics().getCompletedTasks();
+        }
+
+        @Override
+        public int getStuckTasks() {
+            return getStatistics().getStuckTasks();
+        }
+
+        @Override
+        public long[] getWorkerBusyNanos() {
+            return getStatistics().getWorkerBusyNanos();
+        }
 
-        for (int i = 0; i < threads; i++) {
-            this.threads.add(new Thread(runnable));
-                this.threads.get(i).start();
+        @Override
+        public long[] getQueueWaitHistogram() {
+            return getStatistics().getQueueWaitHistogram();
+        }
+
+        @Override
+        public long[] getExecutionHistogram() {
+            return getStatistics().getExecutionHistogram();
+        }
+
+        @Override
+        public long getBlockedCount() {
+            return getStatistics().getBlockedCount();
         }
     }
 
-    private class MutableInteger {
-        private int value = 0;
+    private final int coreThreads;
+    private final int maxThreads;
+    private final long keepAliveNanos;
+
+    private final List<Worker> workers;
+    private final List<Deque<Batch>> batches;
+    private long queued;
+    private int idleWorkers;
+    private boolean closed;
+
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final LatencyHistogram execution = new LatencyHistogram();
+    private final LongAdder completed = new LongAdder();
+    private final AtomicLong calls = new AtomicLong();
+    private volatile MapTracer tracer;
+    private ObjectName objectName;
 
-        int getValue() {
-            return value;
+    public ParallelMapperImpl(int threads) {
+        this(threads, threads, 0, TimeUnit.NANOSECONDS);
+    }
+
+    public ParallelMapperImpl(int coreThreads, int maxThreads, long keepAlive, TimeUnit unit) {
+        if (coreThreads < 0 || maxThreads < 1 || maxThreads < coreThreads || keepAlive < 0) {
+            throw new IllegalArgumentException("Illegal pool size: core " + coreThreads + ", max " + maxThreads
+                    + ", keep-alive " + keepAlive);
         }
+        this.coreThreads = coreThreads;
+        this.maxThreads = maxThreads;
+        keepAliveNanos = unit.toNanos(keepAlive);
 
-        void increment() {
-            value++;
+        workers = new ArrayList<>();
+        batches = new ArrayList<>();
+        for (int i = 0; i < Priority.values().length; i++) {
+            batches.add(new ArrayDeque<>());
         }
     }
 
-    @Override
-    public <T, R> List<R> map(Function<? super T, ? extends R> f, List<? extends T> args) throws InterruptedException {
-        final List<R> result = new ArrayList<>(Collections.nCopies(args.size(), null));
+    private Job take(Worker worker) throws InterruptedException {
+        synchronized (batches) {
+            if (!worker.countedIdle) {
+                worker.countedIdle = true;
+                idleWorkers++;
+            }
+            Job head;
+            long waitStart = System.nanoTime();
+            while ((head = poll()) == null) {
+                if (workers.size() <= coreThreads) {
+                    batches.wait();
+                    waitStart = System.nanoTime();
+                    continue;
+                }
+                final long remaining = keepAliveNanos - (System.nanoTime() - waitStart);
+                if (remaining <= 0) {
+                    idleWorkers--;
+                    workers.remove(worker);
+                    return null;
+                }
+                TimeUnit.NANOSECONDS.timedWait(batches, remaining);
+            }
+            worker.countedIdle = false;
+            idleWorkers--;
+            return head;
+        }
+    }
+
+    private void startWorkers() {
+        while (workers.size() < maxThreads && idleWorkers < queued) {
+            final Worker worker = new Worker();
+            workers.add(worker);
+            idleWorkers++;
+            worker.thread.start();
+        }
+    }
 
-        final MutableInteger counter = new MutableInteger();
+    public void setTracer(MapTracer tracer) {
+        this.tracer = tracer;
+    }
 
-        for (int i = 0; i < args.size(); i++) {
-            final int index = i;
-            Runnable runnable = () -> {
-                result.set(index, f.apply(args.get(index)));
-                synchronized (counter) {
-                    counter.increment();
-                    if (counter.getValue() == args.size()) {
-                        counter.notify();
-                    }
+    public ParallelMapperStatistics getStatistics() {
+        final List<Worker> workers;
+        final long queuedTasks;
+        synchronized (batches) {
+            workers = new ArrayList<>(this.workers);
+            queuedTasks = queued;
+        }
+        final long now = System.nanoTime();
+        final long[] busyNanos = new long[workers.size()];
+        final long[] threadIds = new long[workers.size()];
+        int running = 0;
+        int stuck = 0;
+        for (int i = 0; i < workers.size(); i++) {
+            final Worker worker = workers.get(i);
+            final long since = worker.busySince;
+            busyNanos[i] = worker.busyNanos;
+            if (since != IDLE) {
+                running++;
+                busyNanos[i] += now - since;
+                if (now - since > STUCK_TASK_NANOS) {
+                    stuck++;
                 }
-            };
-            synchronized (jobs) {
-                jobs.add(runnable);
-                jobs.notify();
             }
+            threadIds[i] = worker.thread.getId();
         }
 
-        synchronized (counter) {
-            while (counter.getValue() < args.size()) {
-                counter.wait();
+        long blocked = 0;
+        final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        for (ThreadInfo info : threadBean.getThreadInfo(threadIds)) {
+            if (info != null) {
+                blocked += info.getBlockedCount();
             }
         }
-        return result;
+
+        return new ParallelMapperStatistics(workers.size(), queuedTasks, running, completed.sum(), stuck,
+                busyNanos, queueWait.snapshot(), execution.snapshot(), blocked);
+    }
+
+    public synchronized void registerMBean(ObjectName name) throws JMException {
+        ManagementFactory.getPlatformMBeanServer().registerMBean(new Monitor(), name);
+        objectName = name;
+    }
+
+    private Job poll() {
+        for (Deque<Batch> queue : batches) {
+            final Batch batch = queue.poll();
+            if (batch != null) {
+                final Job job = batch.jobs.poll();
+                queued--;
+                if (batch.jobs.isEmpty()) {
+                    batch.scheduled = false;
+                } else {
+                    queue.add(batch);
+                }
+                return job;
+            }
+        }
+        return null;
+    }
+
+    private void submit(Batch batch, Collection<Runnable> jobs) {
+        final long now = System.nanoTime();
+        synchronized (batches) {
+            if (closed) {
+                throw new IllegalStateException("Mapper is closed");
+            }
+            for (Runnable job : jobs) {
+                batch.jobs.add(new Job(job, now));
+            }
+            queued += jobs.size();
+            if (!batch.scheduled) {
+                batch.scheduled = true;
+                batches.get(batch.priority.ordinal()).add(batch);
+            }
+            startWorkers();
+            if (jobs.size() == 1) {
+                batches.notify();
+            } else {
+                batches.notifyAll();
+            }
+        }
+    }
+
+    public <T, R> CompletableFuture<List<R>> mapAsync(Function<? super T, ? extends R> f, List<? extends T> args) {
+        return mapAsync(f, args, Priority.NORMAL);
+    }
+
+    public <T, R> CompletableFuture<List<R>> mapAsync(Function<? super T, ? extends R> f, List<? extends T> args,
+                                                      Priority priority) {
+        final MapCall<T, R> call = new MapCall<>(f, args);
+        if (args.isEmpty()) {
+            return call.future();
+        }
+
+        final List<Runnable> jobs = new ArrayList<>(args.size());
+        for (int i = 0; i < args.size(); i++) {
+            jobs.add(call.job(i));
+        }
+        submit(new Batch(priority), jobs);
+        trace(call.future(), args.size(), priority);
+        return call.future();
+    }
+
+    private void trace(CompletableFuture<?> future, int size, Priority priority) {
+        final MapTracer tracer = this.tracer;
+        if (tracer != null) {
+            final long callId = calls.incrementAndGet();
+            final long start = System.nanoTime();
+            tracer.mapStarted(callId, size, priority);
+            future.whenComplete((result, failure) -> tracer.mapFinished(callId, System.nanoTime() - start, failure));
+        }
+    }
+
+    private <T, R> CompletableFuture<R> mapAsync(Function<? super T, ? extends R> f, T arg, Batch batch) {
+        final CompletableFuture<R> future = new CompletableFuture<>();
+        submit(batch, Collections.singletonList(() -> {
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                future.complete(f.apply(arg));
+            } catch (RuntimeException | Error e) {
+                future.completeExceptionally(e);
+            }
+        }));
+        return future;
+    }
+
+    public <T, R> void mapOrdered(Function<? super T, ? extends R> f, Iterator<? extends T> args,
+                                  int window, Consumer<? super R> consumer) throws InterruptedException {
+        mapOrdered(f, args, window, consumer, Priority.NORMAL);
+    }
+
+    public <T, R> void mapOrdered(Function<? super T, ? extends R> f, Iterator<? extends T> args,
+                                  int window, Consumer<? super R> consumer,
+                                  Priority priority) throws InterruptedException {
+        if (window < 1) {
+            throw new IllegalArgumentException("Window must be positive, got " + window);
+        }
+        final Batch batch = new Batch(priority);
+        final Deque<CompletableFuture<R>> pending = new ArrayDeque<>(window);
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        trace(done, -1, priority);
+        try {
+            while (args.hasNext() || !pending.isEmpty()) {
+                while (pending.size() < window && args.hasNext()) {
+                    pending.add(mapAsync(f, args.next(), batch));
+                }
+                consumer.accept(Futures.get(pending.poll()));
+            }
+            done.complete(null);
+        } catch (InterruptedException | RuntimeException | Error e) {
+            done.completeExceptionally(e);
+            throw e;
+        } finally {
+            pending.forEach(future -> future.cancel(false));
+        }
+    }
+
+    @Override
+    public <T, R> List<R> map(Function<? super T, ? extends R> f, List<? extends T> args) throws InterruptedException {
+        return map(f, args, Priority.NORMAL);
+    }
+
+    public <T, R> List<R> map(Function<? super T, ? extends R> f, List<? extends T> args,
+                              Priority priority) throws InterruptedException {
+        return Futures.get(mapAsync(f, args, priority));
     }
 
     @Override
     public void close() {
-        threads.forEach(Thread::interrupt);
-        for (Thread thread : threads) {
+        final List<Worker> workers;
+        synchronized (batches) {
+            closed = true;
+            workers = new ArrayList<>(this.workers);
+        }
+        workers.forEach(worker -> worker.thread.interrupt());
+        for (Worker worker : workers) {
             try {
-                thread.join();
+                worker.thread.join();
             } catch (InterruptedException ignored) {
             }
         }
+        synchronized (this) {
+            if (objectName != null) {
+                try {
+                    ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+                } catch (JMException ignored) {
+                }
+                objectName = null;
+            }
+        }
     }
 }
@@ -0,0 +1,21 @@
+package ru.ifmo.rain.khusainov.concurrent;
+
+public interface ParallelMapperMXBean {
+    int getWorkers();
+
+    long getQueuedTasks();
+
+    int getRunningTasks();
+
+    long getCompletedTasks();
+
+    int getStuckTasks();
+
+    long[] getWorkerBusyNanos();
+
+    long[] getQueueWaitHistogram();
+
+    long[] getExecutionHistogram();
+
+    long getBlockedCount();
+}
@@ -0,0 +1,76 @@
+package ru.ifmo.rain.khusainov.concurrent;
+
+/**
+ * Point-in-time view of a {@link ParallelMapperImpl}. Histograms use power-of-two nanosecond buckets:
+ * bucket {@code i} counts tasks that took {@code [2^i, 2^(i+1))} nanoseconds.
+ */
+public final class ParallelMapperStatistics {
+    private final int workers;
+    private final long queuedTasks;
+    private final int runningTasks;
+    private final long completedTasks;
+    private final int stuckTasks;
+    private final long[] workerBusyNanos;
+    private final long[] queueWaitHistogram;
+    private final long[] executionHistogram;
+    private final long blockedCount;
+
+    ParallelMapperStatistics(int workers, long queuedTasks, int runningTasks, long completedTasks, int stuckTasks,
+                             long[] workerBusyNanos, long[] queueWaitHistogram, long[] executionHistogram,
+                             long blockedCount) {
+        this.workers = workers;
+        this.queuedTasks = queuedTasks;
+        this.runningTasks = runningTasks;
+        this.completedTasks = completedTasks;
+        this.stuckTasks = stuckTasks;
+        this.workerBusyNanos = workerBusyNanos;
+        this.queueWaitHistogram = queueWaitHistogram;
+        this.executionHistogram = executionHistogram;
+        this.blockedCount = blockedCount;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public long getQueuedTasks() {
+        return queuedTasks;
+    }
+
+    public int getRunningTasks() {
+        return runningTasks;
+    }
+
+    public long getCompletedTasks() {
+        return completedTasks;
+    }
+
+    /**
+     * Returns the number of tasks that have been running for longer than
+     * {@link ParallelMapperImpl#STUCK_TASK_NANOS}.
+     */
+    public int getStuckTasks() {
+        return stuckTasks;
+    }
+
+    public long[] getWorkerBusyNanos() {
+        return workerBusyNanos.clone();
+    }
+
+    public long[] getQueueWaitHistogram() {
+        return queueWaitHistogram.clone();
+    }
+
+    public long[] getExecutionHistogram() {
+        return executionHistogram.clone();
+    }
+
+    /**
+     * Returns how many times worker threads blocked to enter or reenter any monitor, summed over
+     * {@link java.lang.management.ThreadInfo#getBlockedCount()} of the workers. Besides contention on the job queue,
+     * it counts monitors entered by the mapped functions.
+     */
+    public long getBlockedCount() {
+        return blockedCount;
+    }
+}
@@ -0,0 +1,343 @@
+package ru.ifmo.rain.khusainov.implementor;
+
+import info.kgeorgiy.java.advanced.implementor.ImplerException;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An {@link Implementor} which generates bytecode of implementations directly, without generating and compiling
+ * source code.
+ * <p>
+ * Generated classes behave like compiled implementations produced by {@link Implementor}: constructors call
+ * <tt>super</tt> with their arguments and methods return default values. Generic types are erased as by the compiler.
+ * {@link #implement(Class, Path)} still generates source code.
+ */
+public class BytecodeImplementor extends Implementor {
+    /**
+     * <tt>ACC_SUPER</tt> flag which is set for all classes produced by modern compilers
+     */
+    private static final int ACC_SUPER = 0x0020;
+
+    /**
+     * Access modifiers which are copied from implemented constructors and methods
+     */
+    private static final int ACCESS = Modifier.PUBLIC | Modifier.PROTECTED | Modifier.PRIVATE;
+
+    /**
+     * Internal name of {@link Object}
+     */
+    private static final String OBJECT = "java/lang/Object";
+
+    /**
+     * Opcodes of instructions used in generated code
+     */
+    private static final int ACONST_NULL = 0x01, ICONST_0 = 0x03, ICONST_1 = 0x04, LCONST_0 = 0x09, FCONST_0 = 0x0b,
+            DCONST_0 = 0x0e, ILOAD = 0x15, LLOAD = 0x16, FLOAD = 0x17, DLOAD = 0x18, ALOAD = 0x19, ALOAD_0 = 0x2a,
+            IRETURN = 0xac, LRETURN = 0xad, FRETURN = 0xae, DRETURN = 0xaf, ARETURN = 0xb0, RETURN = 0xb1,
+            INVOKESPECIAL = 0xb7;
+
+    /**
+     * Implementations defined by {@link #defineClass(Class)}
+     */
+    private final Map<Class<?>, Class<?>> definedClasses = new HashMap<>();
+
+    /**
+     * Create instance of {@link BytecodeImplementor}
+     */
+    public BytecodeImplementor() {
+
+    }
+
+    /**
+     * Generates class file of implementation of <tt>token</tt>.
+     *
+     * @param token type token to create implementation for
+     * @return bytes of the class file
+     * @throws ImplerException if implementation of <tt>token</tt> can not be generated
+     */
+    public byte[] generate(Class<?> token) throws ImplerException {
+        if (token == null) {
+            throw new ImplerException("Passed arguments are incorrect");
+        }
+        checkToken(token);
+        String superName = token.isInterface() ? OBJECT : getInternalName(token);
+        ClassFileWriter writer = new ClassFileWriter(
+                token.getModifiers() & Modifier.PUBLIC | ACC_SUPER,
+                getImplFullName(token).replace('.', '/'),
+                superName,
+                token.isInterface() ? new String[]{getInternalName(token)} : new String[0]
+        );
+        if (token.isInterface()) {
+            writeConstructor(writer, superName, token.getModifiers() & Modifier.PUBLIC, new Class<?>[0], new Class<?>[0]);
+        } else {
+            for (Constructor<?> constructor : getConstructorsToImplement(token)) {
+                writeConstructor(writer, superName, constructor.getModifiers() & ACCESS,
+                        constructor.getParameterTypes(), constructor.getExceptionTypes());
+            }
+        }
+        for (Method method : getMethodsToImplement(token)) {
+            writeMethod(writer, method);
+        }
+        return writer.toByteArray();
+    }
+
+    /**
+     * Adds constructor calling constructor of <tt>superName</tt> with the same parameters.
+     *
+     * @param writer     writer of the implementation
+     * @param superName  internal name of the superclass
+     * @param access     access flags of the constructor
+     * @param parameters types of parameters of the constructor
+     * @param exceptions types of exceptions which the constructor throws
+     */
+    private static void writeConstructor(ClassFileWriter writer, String superName, int access,
+                                         Class<?>[] parameters, Class<?>[] exceptions) {
+        String descriptor = getDescriptor(void.class, parameters);
+        int superConstructor = writer.methodRef(superName, "<init>", descriptor);
+        byte[] code = new byte[1 + 2 * parameters.length + 4];
+        int length = 0;
+        code[length++] = (byte) ALOAD_0;
+        int slot = 1;
+        for (Class<?> parameter : parameters) {
+            code[length++] = (byte) getLoadOpcode(parameter);
+            code[length++] = (byte) slot;
+            slot += getSize(parameter);
+        }
+        code[length++] = (byte) INVOKESPECIAL;
+        code[length++] = (byte) (superConstructor >>> 8);
+        code[length++] = (byte) superConstructor;
+        code[length] = (byte) RETURN;
+        writer.addMethod(access, "<init>", descriptor, code, slot, slot, getInternalNames(exceptions));
+    }
+
+    /**
+     * Adds implementation of <tt>method</tt> which returns default value of its return type.
+     *
+     * @param writer writer of the implementation
+     * @param method method to implement
+     * @see #getDefaultReturnCode(Class)
+     */
+    private static void writeMethod(ClassFileWriter writer, Method method) {
+        Class<?> returnType = method.getReturnType();
+        int slots = 1;
+        for (Class<?> parameter : method.getParameterTypes()) {
+            slots += getSize(parameter);
+        }
+        writer.addMethod(method.getModifiers() & ACCESS, method.getName(),
+                getDescriptor(returnType, method.getParameterTypes()), getDefaultReturnCode(returnType),
+                getSize(returnType), slots, getInternalNames(method.getExceptionTypes()));
+    }
+
+    /**
+     * Returns code which returns default value of <tt>type</tt>. It is <tt>true</tt> for <tt>boolean</tt>, zero for
+     * other primitive types and <tt>null</tt> for references, same as in source generated by {@link Implementor}.
+     *
+     * @param type return type of method
+     * @return bytecode of method body
+     */
+    private static byte[] getDefaultReturnCode(Class<?> type) {
+        if (type == void.class) {
+            return new byte[]{(byte) RETURN};
+        } else if (type == boolean.class) {
+            return new byte[]{ICONST_1, (byte) IRETURN};
+        } else if (type == long.class) {
+            return new byte[]{LCONST_0, (byte) LRETURN};
+        } else if (type == float.class) {
+            return new byte[]{FCONST_0, (byte) FRETURN};
+        } else if (type == double.class) {
+            return new byte[]{DCONST_0, (byte) DRETURN};
+        } else if (type.isPrimitive()) {
+            return new byte[]{ICONST_0, (byte) IRETURN};
+        } else {
+            return new byte[]{ACONST_NULL, (byte) ARETURN};
+        }
+    }
+
+    /**
+     * Returns opcode of instruction loading local variable of <tt>type</tt>.
+     *
+     * @param type type of the variable
+     * @return opcode of load instruction
+     */
+    private static int getLoadOpcode(Class<?> type) {
+        if (type == long.class) {
+            return LLOAD;
+        } else if (type == float.class) {
+            return FLOAD;
+        } else if (type == double.class) {
+            return DLOAD;
+        } else if (type.isPrimitive()) {
+            return ILOAD;
+        } else {
+            return ALOAD;
+        }
+    }
+
+    /**
+     * Returns number of local variable or operand stack slots which value of <tt>type</tt> takes.
+     *
+     * @param type type of the value
+     * @return <tt>0</tt> for <tt>void</tt>, <tt>2</tt> for <tt>long</tt> and <tt>double</tt>, <tt>1</tt> otherwise
+     */
+    private static int getSize(Class<?> type) {
+        if (type == void.class) {
+            return 0;
+        }
+        return type == long.class || type == double.class ? 2 : 1;
+    }
+
+    /**
+     * Returns internal name of <tt>type</tt>, which is its binary name with slashes instead of dots.
+     * For arrays it is their descriptor.
+     *
+     * @param type class, interface or array type
+     * @return internal name of <tt>type</tt>
+     */
+    private static String getInternalName(Class<?> type) {
+        return type.getName().replace('.', '/');
+    }
+
+    /**
+     * Returns internal names of <tt>types</tt>.
+     *
+     * @param types classes or interfaces
+     * @return internal names of <tt>types</tt> in the same order
+     */
+    private static String[] getInternalNames(Class<?>[] types) {
+        String[] names = new String[types.length];
+        for (int i = 0; i < types.length; i++) {
+            names[i] = getInternalName(types[i]);
+        }
+        return names;
+    }
+
+    /**
+     * Returns descriptor of method with <tt>returnType</tt> and <tt>parameters</tt>.
+     *
+     * @param returnType return type of the method
+     * @param parameters types of parameters of the method
+     * @return method descriptor
+     */
+    private static String getDescriptor(Class<?> returnType, Class<?>[] parameters) {
+        StringBuilder descriptor = new StringBuilder("(");
+        for (Class<?> parameter : parameters) {
+            descriptor.append(getDescriptor(parameter));
+        }
+        return descriptor.append(')').append(getDescriptor(returnType)).toString();
+    }
+
+    /**
+     * Returns field descriptor of <tt>type</tt>, or <tt>V</tt> for <tt>void</tt>.
+     *
+     * @param type a type
+     * @return descriptor of <tt>type</tt>
+     */
+    private static String getDescriptor(Class<?> type) {
+        if (type.isArray()) {
+            return getInternalName(type);
+        } else if (!type.isPrimitive()) {
+            return "L" + getInternalName(type) + ";";
+        } else if (type == void.class) {
+            return "V";
+        } else if (type == boolean.class) {
+            return "Z";
+        } else if (type == byte.class) {
+            return "B";
+        } else if (type == char.class) {
+            return "C";
+        } else if (type == short.class) {
+            return "S";
+        } else if (type == int.class) {
+            return "I";
+        } else if (type == long.class) {
+            return "J";
+        } else if (type == float.class) {
+            return "F";
+        } else {
+            return "D";
+        }
+    }
+
+    /**
+     * Defines implementation of <tt>token</tt> for use in the running program and returns it.
+     * <p>
+     * The implementation is defined in the package of <tt>token</tt> and, if possible, by its class loader, so
+     * <tt>package-private</tt> types are accessible. Otherwise, it is defined by a new child of that class loader.
+     * Each <tt>token</tt> is defined once per instance of {@link BytecodeImplementor}.
+     *
+     * @param token type token to create implementation for
+     * @return class of the implementation
+     * @throws ImplerException if implementation of <tt>token</tt> can not be generated or defined
+     */
+    public synchronized Class<?> defineClass(Class<?> token) throws ImplerException {
+        Class<?> defined = definedClasses.get(token);
+        if (defined != null) {
+            return defined;
+        }
+        if (token != null && token.getName().startsWith("java.")) {
+            throw new ImplerException("Implementation can not be defined in package java");
+        }
+        byte[] bytes = generate(token);
+        try {
+            try {
+                defined = MethodHandles.privateLookupIn(token, MethodHandles.lookup()).defineClass(bytes);
+            } catch (IllegalAccessException | SecurityException e) {
+                defined = new ImplClassLoader(token.getClassLoader()).define(getImplFullName(token), bytes);
+            }
+        } catch (LinkageError e) {
+            throw new ImplerException("Unable to define implementation of " + token.getName(), e);
+        }
+        definedClasses.put(token, defined);
+        return defined;
+    }
+
+    /**
+     * Generates class files of implementations of <tt>tokens</tt> by {@link #generate(Class)}, so producing
+     * <tt>.jar</tt> files does not require a compiler.
+     *
+     * @param tokens checked type tokens with distinct names of implementations
+     * @return generated classes by their binary names
+     * @throws ImplerException if implementation of any token can not be generated
+     */
+    @Override
+    Map<String, byte[]> implementClasses(Collection<Class<?>> tokens) throws ImplerException {
+        Map<String, byte[]> classes = new TreeMap<>();
+        for (Class<?> token : tokens) {
+            classes.put(getImplFullName(token), generate(token));
+        }
+        return classes;
+    }
+
+    /**
+     * Class loader defining implementations whose tokens are not accessible by {@link MethodHandles.Lookup}
+     */
+    private static class ImplClassLoader extends ClassLoader {
+        /**
+         * Creates class loader delegating to <tt>parent</tt>.
+         *
+         * @param parent class loader of implemented token
+         */
+        ImplClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        /**
+         * Defines class <tt>name</tt> from <tt>bytes</tt>.
+         *
+         * @param name  binary name of the class
+         * @param bytes class file
+         * @return defined class
+         */
+        Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package ru.ifmo.rain.khusainov.implementor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Minimal writer of class files of version 52 (Java 8).
+ * <p>
+ * It supports only what {@link BytecodeImplementor} needs: a class without fields, and methods whose code has no
+ * branches, so neither exception tables nor <tt>StackMapTable</tt> attributes are written. Constant pool entries
+ * are deduplicated, and strings are stored in modified UTF-8 as {@link DataOutputStream#writeUTF(String)} does.
+ */
+class ClassFileWriter {
+    /**
+     * Magic number of class files
+     */
+    private static final int MAGIC = 0xCAFEBABE;
+
+    /**
+     * Major version of written class files
+     */
+    private static final int MAJOR_VERSION = 52;
+
+    /**
+     * Tag of <tt>CONSTANT_Utf8</tt> constant pool entry
+     */
+    private static final int CONSTANT_UTF8 = 1;
+
+    /**
+     * Tag of <tt>CONSTANT_Class</tt> constant pool entry
+     */
+    private static final int CONSTANT_CLASS = 7;
+
+    /**
+     * Tag of <tt>CONSTANT_Methodref</tt> constant pool entry
+     */
+    private static final int CONSTANT_METHODREF = 10;
+
+    /**
+     * Tag of <tt>CONSTANT_NameAndType</tt> constant pool entry
+     */
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    /**
+     * Written constant pool entries
+     */
+    private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+
+    /**
+     * Indices of written constant pool entries by their tags and contents
+     */
+    private final Map<String, Integer> poolIndices = new HashMap<>();
+
+    /**
+     * Index of the next constant pool entry
+     */
+    private int poolSize = 1;
+
+    /**
+     * Written methods
+     */
+    private final ByteArrayOutputStream methods = new ByteArrayOutputStream();
+
+    /**
+     * Number of written methods
+     */
+    private int methodCount;
+
+    /**
+     * Access flags of the class
+     */
+    private final int access;
+
+    /**
+     * Constant pool index of the class
+     */
+    private final int thisClass;
+
+    /**
+     * Constant pool index of the superclass
+     */
+    private final int superClass;
+
+    /**
+     * Constant pool indices of the implemented interfaces
+     */
+    private final int[] interfaces;
+
+    /**
+     * Creates writer of class <tt>name</tt>.
+     *
+     * @param access     access flags of the class
+     * @param name       internal name of the class
+     * @param superName  internal name of the superclass
+     * @param interfaces internal names of the implemented interfaces
+     */
+    ClassFileWriter(int access, String name, String superName, String... interfaces) {
+        this.access = access;
+        thisClass = classRef(name);
+        superClass = classRef(superName);
+        this.interfaces = new int[interfaces.length];
+        for (int i = 0; i < interfaces.length; i++) {
+            this.interfaces[i] = classRef(interfaces[i]);
+        }
+    }
+
+    /**
+     * Returns index of constant pool entry with <tt>key</tt>, adding the entry written by <tt>entry</tt> if there is none.
+     *
+     * @param key   tag and content of the entry
+     * @param entry writes the entry
+     * @return index of the entry
+     */
+    private int constant(String key, Entry entry) {
+        Integer index = poolIndices.get(key);
+        if (index == null) {
+            try {
+                entry.write(new DataOutputStream(pool));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            index = poolSize++;
+            poolIndices.put(key, index);
+        }
+        return index;
+    }
+
+    /**
+     * Writer of a constant pool entry
+     */
+    private interface Entry {
+        /**
+         * Writes the entry by <tt>out</tt>.
+         *
+         * @param out output of the constant pool
+         * @throws IOException if an I/O error occurs
+         */
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * Returns index of <tt>CONSTANT_Utf8</tt> entry of <tt>value</tt>.
+     *
+     * @param value string constant
+     * @return index of the entry
+     */
+    private int utf8(String value) {
+        return constant(CONSTANT_UTF8 + value, out -> {
+            out.writeByte(CONSTANT_UTF8);
+            out.writeUTF(value);
+        });
+    }
+
+    /**
+     * Returns index of <tt>CONSTANT_Class</tt> entry of class <tt>name</tt>.
+     *
+     * @param name internal name of the class
+     * @return index of the entry
+     */
+    int classRef(String name) {
+        int nameIndex = utf8(name);
+        return constant(CONSTANT_CLASS + name, out -> {
+            out.writeByte(CONSTANT_CLASS);
+            out.writeShort(nameIndex);
+        });
+    }
+
+    /**
+     * Returns index of <tt>CONSTANT_Methodref</tt> entry of method <tt>name</tt> of class <tt>owner</tt>.
+     *
+     * @param owner      internal name of the class declaring the method
+     * @param name       name of the method
+     * @param descriptor descriptor of the method
+     * @return index of the entry
+     */
+    int methodRef(String owner, String name, String descriptor) {
+        int ownerIndex = classRef(owner);
+        int nameIndex = utf8(name);
+        int descriptorIndex = utf8(descriptor);
+        int nameAndTypeIndex = constant(CONSTANT_NAME_AND_TYPE + name + ' ' + descriptor, out -> {
+            out.writeByte(CONSTANT_NAME_AND_TYPE);
+            out.writeShort(nameIndex);
+            out.writeShort(descriptorIndex);
+        });
+        return constant(CONSTANT_METHODREF + owner + '.' + name + descriptor, out -> {
+            out.writeByte(CONSTANT_METHODREF);
+            out.writeShort(ownerIndex);
+            out.writeShort(nameAndTypeIndex);
+        });
+    }
+
+    /**
+     * Adds method with <tt>Code</tt> attribute and, if <tt>exceptions</tt> are not empty, <tt>Exceptions</tt> attribute.
+     *
+     * @param access     access flags of the method
+     * @param name       name of the method
+     * @param descriptor descriptor of the method
+     * @param code       bytecode of the method
+     * @param maxStack   maximal depth of the operand stack
+     * @param maxLocals  number of local variable slots including parameters
+     * @param exceptions internal names of the declared exceptions
+     */
+    void addMethod(int access, String name, String descriptor, byte[] code, int maxStack, int maxLocals, String... exceptions) {
+        int nameIndex = utf8(name);
+        int descriptorIndex = utf8(descriptor);
+        int codeIndex = utf8("Code");
+        int exceptionsIndex = exceptions.length == 0 ? 0 : utf8("Exceptions");
+        int[] exceptionIndices = new int[exceptions.length];
+        for (int i = 0; i < exceptions.length; i++) {
+            exceptionIndices[i] = classRef(exceptions[i]);
+        }
+
+        try {
+            DataOutputStream out = new DataOutputStream(methods);
+            out.writeShort(access);
+            out.writeShort(nameIndex);
+            out.writeShort(descriptorIndex);
+            out.writeShort(exceptions.length == 0 ? 1 : 2);
+
+            out.writeShort(codeIndex);
+            out.writeInt(12 + code.length);
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(code.length);
+            out.write(code);
+            out.writeShort(0);
+            out.writeShort(0);
+
+            if (exceptions.length != 0) {
+                out.writeShort(exceptionsIndex);
+                out.writeInt(2 + 2 * exceptions.length);
+                out.writeShort(exceptions.length);
+                for (int index : exceptionIndices) {
+                    out.writeShort(index);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        methodCount++;
+    }
+
+    /**
+     * Returns the written class file.
+     *
+     * @return bytes of the class file
+     */
+    byte[] toByteArray() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeShort(0);
+            out.writeShort(MAJOR_VERSION);
+            out.writeShort(poolSize);
+            pool.writeTo(out);
+            out.writeShort(access);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(interfaces.length);
+            for (int index : interfaces) {
+                out.writeShort(index);
+            }
+            out.writeShort(0);
+            out.writeShort(methodCount);
+            methods.writeTo(out);
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
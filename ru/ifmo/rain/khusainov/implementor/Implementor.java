@@ -4,20 +4,29 @@ import info.kgeorgiy.java.advanced.implementor.Impler;
 import info.kgeorgiy.java.advanced.implementor.ImplerException;
 import info.kgeorgiy.java.advanced.implementor.JarImpler;
 
-import javax.tools.JavaCompiler;
-import javax.tools.ToolProvider;
-import java.io.File;
-import java.io.IOException;
-import java.io.Writer;
+import javax.tools.*;
+import java.io.*;
 import java.lang.reflect.*;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
-import java.nio.file.attribute.BasicFileAttributes;
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
+import java.security.CodeSource;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.jar.Attributes;
+import java.util.jar.JarFile;
 import java.util.jar.JarOutputStream;
 import java.util.jar.Manifest;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
 
 /**
@@ -32,31 +41,42 @@ public class Implementor implements Impler, JarImpler {
     private static final String TAB = "    ";
 
     /**
-     * Create instance of {@link Implementor}
+     * Orders type tokens by their names
      */
-    public Implementor() {
+    private static final Comparator<Class<?>> BY_NAME = Comparator.comparing(Class::getName);
 
-    }
+    /**
+     * Orders constructors and methods by their names and parameter types
+     */
+    private static final Comparator<Executable> BY_SIGNATURE = Comparator.comparing(Implementor::getSignature);
 
     /**
-     * Returns the {@link java.nio.file.Path} to the implementation of <tt>token</tt> relative from the <tt>root</tt>.
-     * Implementation of <tt>token</tt> has suffix <tt>Impl</tt>. Also the path has suffix dependent on <tt>end</tt>.
+     * Usage message printed by {@link #main(String[])} when arguments do not match any mode
+     */
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Usage:",
+            "    java -jar Implementor.jar class-to-implement path-to-class",
+            "    java -jar Implementor.jar -jar class-to-implement path-to-jar",
+            "    java -jar Implementor.jar -batch path-to-jar-or-directory package path-to-root");
+
+    /**
+     * Methods which classes and interfaces have by their signatures, by type tokens of the classes and interfaces.
+     * It is shared by all tokens implemented by this instance, so common ancestors are resolved once.
      *
-     * @param token type token to create the implementation's path to
-     * @param root  root directory
-     * @param end   if true then add <tt>.java</tt> to the suffix of path
-     *              if false then add <tt>.class</tt> to the suffix of path
-     * @return path to the implementation of <tt>token</tt> starting from <tt>root</tt>
+     * @see #getResolvedMethods(Class)
      */
-    private static Path getFilePath(Class<?> token, Path root, boolean end) {
-        root = getFileDirectory(token, root);
-        return root.resolve(getImplClassName(token) + (end ? ".java" : ".class"));
+    private final Map<Class<?>, Map<Signature, Method>> resolvedMethods = new ConcurrentHashMap<>();
+
+    /**
+     * Create instance of {@link Implementor}
+     */
+    public Implementor() {
+
     }
 
     /**
      * Creates the {@link Path} to the <tt>token</tt> relative from the <tt>root</tt>.
-     * The return value is same as call <tt>getFilePath(token, root, true)</tt> but if the path does not exist
-     * the directories in it are created.
+     * The path has suffix <tt>.java</tt>. If the path does not exist the directories in it are created.
      *
      * @param token type token to create the path to
      * @param root  root directory
@@ -111,10 +131,7 @@ public class Implementor implements Impler, JarImpler {
         if (token == null || root == null) {
             throw new ImplerException("Passed arguments are incorrect");
         }
-
-        if (token.isPrimitive() || token.isArray() || token == Enum.class || Modifier.isFinal(token.getModifiers())) {
-            throw new ImplerException("Class token is incorrect");
-        }
+        checkToken(token);
 
         try (
                 Writer writer = Files.newBufferedWriter(createJavaDirectory(token, root))
@@ -126,6 +143,196 @@ public class Implementor implements Impler, JarImpler {
 
     }
 
+    /**
+     * Checks that an implementation of <tt>token</tt> can be generated.
+     *
+     * @param token type token to create implementation for
+     * @throws ImplerException if <tt>token</tt> is a primitive type, an array, {@link Enum} or a final class
+     */
+    static void checkToken(Class<?> token) throws ImplerException {
+        if (token.isPrimitive() || token.isArray() || token == Enum.class || Modifier.isFinal(token.getModifiers())) {
+            throw new ImplerException("Class token is incorrect");
+        }
+    }
+
+    /**
+     * Produces code implementing every class or interface of <tt>tokens</tt> as {@link #implement(Class, Path)} does,
+     * using up to <tt>threads</tt> worker threads.
+     * <p>
+     * Every token is processed even if some of them fail. Failures are reported by a single {@link ImplerException}
+     * which has the exception of every failed token suppressed, ordered by names of the tokens.
+     *
+     * @param tokens  type tokens to create implementations for
+     * @param root    root directory
+     * @param threads maximal number of worker threads
+     * @throws ImplerException when implementation of any token cannot be generated
+     */
+    public void implementAll(Collection<Class<?>> tokens, Path root, int threads) throws ImplerException {
+        if (tokens == null || root == null || threads <= 0) {
+            throw new ImplerException("Passed arguments are incorrect");
+        }
+        forEachToken(sortTokens(tokens), threads, token -> implement(token, root));
+    }
+
+    /**
+     * Returns <tt>tokens</tt> without duplicates, ordered by their names.
+     *
+     * @param tokens type tokens
+     * @return ordered set of <tt>tokens</tt>
+     * @throws ImplerException if any of <tt>tokens</tt> is <tt>null</tt>
+     */
+    private static Set<Class<?>> sortTokens(Collection<Class<?>> tokens) throws ImplerException {
+        Set<Class<?>> sorted = new TreeSet<>(BY_NAME);
+        for (Class<?> token : tokens) {
+            if (token == null) {
+                throw new ImplerException("Passed arguments are incorrect");
+            }
+            sorted.add(token);
+        }
+        return sorted;
+    }
+
+    /**
+     * Action which is performed for every type token by {@link #forEachToken(Set, int, TokenAction)}.
+     */
+    private interface TokenAction {
+        /**
+         * Performs the action for <tt>token</tt>.
+         *
+         * @param token type token
+         * @throws ImplerException if the action fails
+         */
+        void apply(Class<?> token) throws ImplerException;
+    }
+
+    /**
+     * Performs <tt>action</tt> for every token of <tt>sorted</tt> using up to <tt>threads</tt> worker threads.
+     * <p>
+     * Every token is processed even if some of them fail. Failures are reported by a single {@link ImplerException}
+     * which has the exception of every failed token suppressed, in the order of <tt>sorted</tt>.
+     *
+     * @param sorted  type tokens ordered by their names
+     * @param threads maximal number of worker threads
+     * @param action  action to perform
+     * @throws ImplerException when <tt>action</tt> fails for any token
+     */
+    private static void forEachToken(Set<Class<?>> sorted, int threads, TokenAction action) throws ImplerException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, sorted.size())));
+        try {
+            Map<Class<?>, Future<?>> results = new LinkedHashMap<>();
+            for (Class<?> token : sorted) {
+                results.put(token, executor.submit(() -> {
+                    action.apply(token);
+                    return null;
+                }));
+            }
+            List<ImplerException> failures = new ArrayList<>();
+            for (Map.Entry<Class<?>, Future<?>> result : results.entrySet()) {
+                try {
+                    result.getValue().get();
+                } catch (ExecutionException e) {
+                    failures.add(new ImplerException(result.getKey().getName() + ": " + e.getCause().getMessage(), e.getCause()));
+                }
+            }
+            if (!failures.isEmpty()) {
+                ImplerException exception = new ImplerException(
+                        "Unable to implement " + failures.size() + " of " + sorted.size() + " classes");
+                failures.forEach(exception::addSuppressed);
+                throw exception;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ImplerException("Interrupted while implementing classes", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Finds classes and interfaces which can be implemented in the package <tt>packageName</tt> and its subpackages
+     * of <tt>classPath</tt>. Only interfaces and abstract classes are returned; annotations, enums, nested classes
+     * and classes which cannot be loaded are skipped.
+     * <p>
+     * Tokens are loaded by a new {@link URLClassLoader} for <tt>classPath</tt>, which is not closed, so the
+     * hierarchies of the tokens can be resolved later.
+     *
+     * @param classPath   <tt>.jar</tt> file or directory with compiled classes
+     * @param packageName name of the package to scan, empty for all packages
+     * @return found type tokens ordered by their names
+     * @throws ImplerException if <tt>classPath</tt> cannot be read
+     */
+    public static List<Class<?>> findTokens(Path classPath, String packageName) throws ImplerException {
+        String prefix = packageName.isEmpty() ? "" : packageName.replace('.', '/') + '/';
+        List<String> names;
+        ClassLoader loader;
+        try {
+            names = Files.isDirectory(classPath) ? listDirectory(classPath) : listJar(classPath);
+            loader = new URLClassLoader(new URL[]{classPath.toUri().toURL()}, Implementor.class.getClassLoader());
+        } catch (MalformedURLException e) {
+            throw new ImplerException("Incorrect class path: " + classPath, e);
+        } catch (IOException e) {
+            throw new ImplerException("Unable to read class path: " + classPath, e);
+        }
+
+        List<Class<?>> tokens = new ArrayList<>();
+        for (String name : names) {
+            if (!name.startsWith(prefix) || !name.endsWith(".class") || name.contains("$") || name.contains("-")) {
+                continue;
+            }
+            try {
+                Class<?> token = Class.forName(
+                        name.substring(0, name.length() - ".class".length()).replace('/', '.'), false, loader);
+                if ((token.isInterface() || Modifier.isAbstract(token.getModifiers())) && !token.isAnnotation() && !token.isEnum()) {
+                    tokens.add(token);
+                }
+            } catch (ClassNotFoundException | LinkageError ignored) {
+                // skipped as documented
+            }
+        }
+        tokens.sort(BY_NAME);
+        return tokens;
+    }
+
+    /**
+     * Returns names of all entries of <tt>.jar</tt> file <tt>jar</tt>.
+     *
+     * @param jar <tt>.jar</tt> file
+     * @return names of entries of <tt>jar</tt>
+     * @throws IOException if an I/O error occurs
+     */
+    private static List<String> listJar(Path jar) throws IOException {
+        try (JarFile file = new JarFile(jar.toFile())) {
+            return file.stream().map(ZipEntry::getName).collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Returns paths of all files in <tt>root</tt> relative to it, with <tt>'/'</tt> as separator.
+     *
+     * @param root root directory
+     * @return relative paths of files in <tt>root</tt>
+     * @throws IOException if an I/O error occurs
+     */
+    private static List<String> listDirectory(Path root) throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(Files::isRegularFile)
+                    .map(file -> root.relativize(file).toString().replace(File.separatorChar, '/'))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Returns signature of <tt>executable</tt> consisting of its name and names of its parameter types.
+     *
+     * @param executable constructor or method
+     * @return signature of <tt>executable</tt>
+     */
+    private static String getSignature(Executable executable) {
+        return Arrays.stream(executable.getParameterTypes())
+                .map(Class::getName)
+                .collect(Collectors.joining(",", executable.getName() + "(", ")"));
+    }
+
     /**
      * Writes implementation of <tt>token</tt> by <tt>writer</tt>
      *
@@ -198,28 +405,42 @@ public class Implementor implements Impler, JarImpler {
     }
 
     /**
-     * Writes implementation of constructors of <tt>token</tt>'s implementation by <tt>writer</tt>.
+     * Returns constructors of <tt>token</tt> which its implementation declares, in the order of their signatures.
      * <tt>Private</tt> constructors are ignored. Also <tt>token</tt> have to have at least one <tt>non-private</tt>
      * <tt>declared constructor</tt> or it has to be an interface. Otherwise, this method throws an <tt>ImplerException</tt>.
      *
+     * @param token type token to create implementation for
+     * @return <tt>non-private</tt> <tt>declared constructors</tt> of <tt>token</tt>
+     * @throws ImplerException if <tt>token</tt> is not an interface and it has only <tt>private</tt> <tt>declared constructors</tt>
+     */
+    List<Constructor<?>> getConstructorsToImplement(Class<?> token) throws ImplerException {
+        List<Constructor<?>> constructors = new ArrayList<>();
+        for (Constructor<?> constructor : token.getDeclaredConstructors()) {
+            if (!Modifier.isPrivate(constructor.getModifiers())) {
+                constructors.add(constructor);
+            }
+        }
+        if (constructors.isEmpty() && !token.isInterface()) {
+            throw new ImplerException("Has no non-private constructor");
+        }
+        constructors.sort(BY_SIGNATURE);
+        return constructors;
+    }
+
+    /**
+     * Writes implementation of constructors of <tt>token</tt>'s implementation by <tt>writer</tt>.
+     *
      * @param token  type token to create implementation for
      * @param writer a writer
      * @throws IOException     if an I/O error occurs
      * @throws ImplerException if <tt>token</tt> is not an interface and it has only <tt>private</tt> <tt>declared constructors</tt>
+     * @see #getConstructorsToImplement(Class)
      */
     private void writeConstructors(Class<?> token, Writer writer) throws IOException, ImplerException {
-        boolean hasNonPrivateConstructors = false;
-        for (Constructor<?> constructor : token.getDeclaredConstructors()) {
-            if (Modifier.isPrivate(constructor.getModifiers())) {
-                continue;
-            }
-            hasNonPrivateConstructors = true;
+        for (Constructor<?> constructor : getConstructorsToImplement(token)) {
             writeExecutable(constructor, writer, token);
             writeConstructorImpl(constructor, writer);
         }
-        if (!hasNonPrivateConstructors && !token.isInterface()) {
-            throw new ImplerException("Has no non-private constructor");
-        }
     }
 
     /**
@@ -277,104 +498,157 @@ public class Implementor implements Impler, JarImpler {
         writer.write("\n" + TAB + "}\n\n");
     }
 
+    /**
+     * Returns methods of <tt>token</tt> which its implementation has to define.
+     * These are abstract methods of the <tt>token</tt> and its ancestors which were not implemented earlier.
+     * Methods are returned in the order of their signatures, so the output does not depend on the order of reflection data.
+     *
+     * @param token type token to create implementation for
+     * @return methods to implement
+     * @see #getResolvedMethods(Class)
+     */
+    List<Method> getMethodsToImplement(Class<?> token) {
+        Map<String, Method> methods = new TreeMap<>();
+        for (Method method : getResolvedMethods(token).values()) {
+            if (Modifier.isAbstract(method.getModifiers())) {
+                methods.put(getSignature(method), method);
+            }
+        }
+        return new ArrayList<>(methods.values());
+    }
+
     /**
      * Writes implementation of methods of <tt>token</tt>'s implementation by <tt>writer</tt>.
-     * This method implements only abstract method of the <tt>token</tt> and its ancestors if they were not implemented earlier.
      *
      * @param token  type token to create implementation for
      * @param writer a writer
      * @throws IOException if an I/O error occurs
+     * @see #getMethodsToImplement(Class)
      */
     private void writeMethods(Class<?> token, Writer writer) throws IOException {
-        Set<MethodWrapper> set = new HashSet<>();
-        getAbstractMethods(token.getMethods(), set);
-        Class<?> ancestor = token;
-        while (ancestor != null) {
-            getAbstractMethods(token.getDeclaredMethods(), set);
-            ancestor = ancestor.getSuperclass();
-        }
-        for (MethodWrapper wrapper : set) {
-            writeExecutable(wrapper.getMethod(), writer, token);
-            writeMethodImpl(wrapper.getMethod(), writer);
+        for (Method method : getMethodsToImplement(token)) {
+            writeExecutable(method, writer, token);
+            writeMethodImpl(method, writer);
         }
     }
 
     /**
-     * Put <tt>abstract</tt> methods from <tt>methods</tt> in <tt>set</tt>.
+     * Returns instance methods which <tt>token</tt> declares or inherits, by their signatures.
+     * <p>
+     * Methods of <tt>token</tt> override methods of its superclass. Methods of superinterfaces are taken only if no
+     * class of the hierarchy has method with the same signature, and methods of more specific interfaces override
+     * methods of their superinterfaces. Results are cached, so each class and interface is resolved once.
      *
-     * @param methods array of methods
-     * @param set     contains all abstract methods of <tt>methods</tt> after calling this method
+     * @param token type token of class or interface
+     * @return resolved methods of <tt>token</tt>
      */
-    private void getAbstractMethods(Method[] methods, Set<MethodWrapper> set) {
-        for (Method method : methods) {
-            if (Modifier.isAbstract(method.getModifiers())) {
-                set.add(new MethodWrapper(method));
+    private Map<Signature, Method> getResolvedMethods(Class<?> token) {
+        Map<Signature, Method> resolved = resolvedMethods.get(token);
+        if (resolved != null) {
+            return resolved;
+        }
+
+        Map<Signature, Method> methods = new HashMap<>();
+        if (token.getSuperclass() != null) {
+            methods.putAll(getResolvedMethods(token.getSuperclass()));
+        }
+        Map<Signature, Method> declared = new HashMap<>();
+        for (Method method : token.getDeclaredMethods()) {
+            int modifiers = method.getModifiers();
+            if (!Modifier.isStatic(modifiers) && !Modifier.isPrivate(modifiers)) {
+                declared.merge(new Signature(method), method, (a, b) -> a.isBridge() ? b : a);
             }
         }
+        methods.putAll(declared);
+        for (Class<?> superinterface : token.getInterfaces()) {
+            getResolvedMethods(superinterface).forEach((signature, method) -> {
+                Method existing = methods.get(signature);
+                if (existing == null || overrides(method, existing)) {
+                    methods.put(signature, method);
+                }
+            });
+        }
+
+        resolved = resolvedMethods.putIfAbsent(token, Collections.unmodifiableMap(methods));
+        return resolved == null ? resolvedMethods.get(token) : resolved;
+    }
+
+    /**
+     * Checks if <tt>method</tt> inherited from an interface takes place of <tt>existing</tt> method with the same
+     * signature. It does if <tt>existing</tt> is declared in a superinterface of declaring interface of
+     * <tt>method</tt>. If interfaces are not related, the method with more specific return type is taken.
+     *
+     * @param method   method of an interface
+     * @param existing already resolved method
+     * @return <tt>true</tt> if <tt>method</tt> has to replace <tt>existing</tt>
+     */
+    private static boolean overrides(Method method, Method existing) {
+        Class<?> declaring = method.getDeclaringClass();
+        Class<?> existingDeclaring = existing.getDeclaringClass();
+        if (!existingDeclaring.isInterface() || declaring.isAssignableFrom(existingDeclaring)) {
+            return false;
+        }
+        if (existingDeclaring.isAssignableFrom(declaring)) {
+            return true;
+        }
+        return existing.getReturnType() != method.getReturnType()
+                && existing.getReturnType().isAssignableFrom(method.getReturnType());
     }
 
     /**
-     * Wrapper of {@link Method}
+     * Signature of a method, which is its name and parameter types.
+     * Hash code is computed once and parameter types are compared by identity, so signatures are cheap keys of maps.
      */
-    private static class MethodWrapper {
+    private static class Signature {
         /**
-         * instance of {@link Method} wrapped method
+         * Name of the method
          */
-        private final Method method;
+        private final String name;
 
         /**
-         * Returns wrapped method.
-         *
-         * @return wrapped method
+         * Parameter types of the method
          */
-        Method getMethod() {
-            return method;
-        }
+        private final Class<?>[] parameterTypes;
 
         /**
-         * Construct {@link MethodWrapper} which wraps <tt>method</tt>.
+         * Hash code of the signature
+         */
+        private final int hashCode;
+
+        /**
+         * Creates signature of <tt>method</tt>.
          *
-         * @param method wtapped method
+         * @param method a method
          */
-        MethodWrapper(Method method) {
-            this.method = method;
+        Signature(Method method) {
+            name = method.getName();
+            parameterTypes = method.getParameterTypes();
+            hashCode = name.hashCode() * 43 + Arrays.hashCode(parameterTypes);
         }
 
         /**
-         * Returns hash code of wrapped method. It depends only on its name and parameters.
+         * Returns hash code of the signature.
          *
-         * @return hash code of wrapped method
+         * @return hash code of the signature
          */
         @Override
         public int hashCode() {
-            Parameter[] parameters = method.getParameters();
-            int hashCode = Integer.hashCode(parameters.length) * 43 + method.getName().hashCode();
-            for (Parameter parameter : parameters) {
-                hashCode = hashCode * 43 + parameter.toString().hashCode();
-            }
             return hashCode;
         }
 
         /**
-         * Check if {@link Object} <tt>obj</tt> is equal to <tt>this</tt>. If obj is null or it is not instance of MethodWrapper
-         * then <tt>obj</tt> is not equal to <tt>this</tt>. Otherwise, if <tt>obj</tt> and <tt>this</tt> have equal <tt>name</tt>,
-         * <tt>parameter types</tt> and <tt>return type</tt> then they are equal. Otherwise, they are not.
+         * Checks if <tt>obj</tt> is signature with the same name and parameter types.
          *
          * @param obj {@link Object} comparing to <tt>this</tt>
          * @return true if <tt>obj</tt> and <tt>this</tt> are equal and false otherwise
          */
         @Override
         public boolean equals(Object obj) {
-            if (obj == null) {
+            if (!(obj instanceof Signature)) {
                 return false;
             }
-            if (obj instanceof MethodWrapper) {
-                MethodWrapper other = (MethodWrapper) obj;
-                return method.getName().equals(other.method.getName())
-                        && Arrays.equals(method.getParameterTypes(), other.method.getParameterTypes())
-                        && method.getReturnType().equals(other.method.getReturnType());
-            }
-            return false;
+            Signature other = (Signature) obj;
+            return hashCode == other.hashCode && name.equals(other.name) && Arrays.equals(parameterTypes, other.parameterTypes);
         }
     }
 
@@ -414,43 +688,221 @@ public class Implementor implements Impler, JarImpler {
     }
 
     /**
-     * Compile class which has {@link Path} <tt>javaFileName</tt> relatively to <tt>root</tt>.
+     * Returns full name of class which is an implementation of <tt>token</tt>.
+     *
+     * @param token type token to create implementation for
+     * @return the full name of implementation of <tt>token</tt>
+     */
+    static String getImplFullName(Class<?> token) {
+        String name = token.getSimpleName() + "Impl";
+        return token.getPackage() == null ? name : token.getPackage().getName() + "." + name;
+    }
+
+    /**
+     * Returns class path for compiling implementations of <tt>tokens</tt>. It consists of locations of
+     * <tt>tokens</tt>, if they are known, and <tt>java.class.path</tt> system property.
+     *
+     * @param tokens type tokens to create implementations for
+     * @return class path for compiling implementations of <tt>tokens</tt>
+     */
+    private static String getClassPath(Collection<Class<?>> tokens) {
+        Set<String> classPath = new LinkedHashSet<>();
+        for (Class<?> token : tokens) {
+            CodeSource source = token.getProtectionDomain().getCodeSource();
+            if (source != null && source.getLocation() != null) {
+                try {
+                    classPath.add(Paths.get(source.getLocation().toURI()).toString());
+                } catch (URISyntaxException | IllegalArgumentException | FileSystemNotFoundException ignored) {
+                    // location is not a file, so it cannot be passed to the compiler
+                }
+            }
+        }
+        classPath.add(System.getProperty("java.class.path"));
+        return String.join(File.pathSeparator, classPath);
+    }
+
+    /**
+     * Generates implementations of <tt>tokens</tt> and compiles them in memory by a single compilation task,
+     * so the compiler is started and the class path is read once for all of them.
+     * Neither sources nor compiled classes are written to the disk.
      *
-     * @param root         root directory
-     * @param javaFileName name of <tt>.java</tt> file for compiling
-     * @throws ImplerException if compilation can not be done
+     * @param tokens checked type tokens with distinct names of implementations
+     * @return compiled classes by their binary names
+     * @throws ImplerException if implementations can not be generated or compiled
      */
-    private void compileClass(Path root, Path javaFileName) throws ImplerException {
+    Map<String, byte[]> implementClasses(Collection<Class<?>> tokens) throws ImplerException {
+        List<SourceFile> sources = new ArrayList<>();
+        for (Class<?> token : tokens) {
+            StringWriter source = new StringWriter();
+            try {
+                writeClassFile(token, source);
+            } catch (IOException e) {
+                throw new ImplerException(e);
+            }
+            sources.add(new SourceFile(getImplFullName(token), source.toString()));
+        }
+
         JavaCompiler javaCompiler = ToolProvider.getSystemJavaCompiler();
         if (javaCompiler == null) {
             throw new ImplerException("Exception: compiler not found");
         }
-        int returnCode = javaCompiler.run(null, null, null,
-                javaFileName.toString(),
-                "-cp", root + File.pathSeparator + System.getProperty("java.class.path")
-        );
-        if (returnCode != 0) {
-            throw new ImplerException("Exception when compiling");
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (MemoryFileManager fileManager = new MemoryFileManager(
+                javaCompiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8))) {
+            boolean compiled = javaCompiler.getTask(null, fileManager, diagnostics,
+                    Arrays.asList("-classpath", getClassPath(tokens)), null, sources
+            ).call();
+            if (!compiled) {
+                throw new ImplerException("Exception when compiling: " + diagnostics.getDiagnostics().stream()
+                        .filter(d -> d.getKind() == Diagnostic.Kind.ERROR)
+                        .map(d -> d.getMessage(null))
+                        .collect(Collectors.joining("; ")));
+            }
+            return fileManager.getClasses();
+        } catch (IOException e) {
+            throw new ImplerException("Exception when compiling", e);
+        }
+    }
+
+    /**
+     * Source file which content is kept in memory.
+     */
+    private static class SourceFile extends SimpleJavaFileObject {
+        /**
+         * Source code of the file
+         */
+        private final String code;
+
+        /**
+         * Creates source file of class <tt>className</tt> with source code <tt>code</tt>.
+         *
+         * @param className full name of the class
+         * @param code      source code of the class
+         */
+        SourceFile(String className, String code) {
+            super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.code = code;
+        }
+
+        /**
+         * Returns source code of the file.
+         *
+         * @param ignoreEncodingErrors ignored, the code is kept in memory
+         * @return source code of the file
+         */
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return code;
         }
     }
 
     /**
-     * Creates and writes <tt>.jar</tt> file by {@link Path} of <tt>jarFile</tt> relatively to <tt>root</tt>.
-     * Resulting <tt>.jar</tt> contains {@link Manifest} with attribute <tt>MANIFEST_VERSION</tt>. Also it contains compiled
-     * <tt>.class</tt> file of <tt>token</tt>.
+     * Class file which content is collected in memory.
+     */
+    private static class ClassFile extends SimpleJavaFileObject {
+        /**
+         * Bytecode of the class
+         */
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        /**
+         * Creates class file of class <tt>className</tt>.
+         *
+         * @param className binary name of the class
+         */
+        ClassFile(String className) {
+            super(URI.create("bytes:///" + className.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+        }
+
+        /**
+         * Returns stream collecting bytecode of the class.
+         *
+         * @return stream collecting bytecode of the class
+         */
+        @Override
+        public OutputStream openOutputStream() {
+            return bytes;
+        }
+
+        /**
+         * Returns collected bytecode of the class.
+         *
+         * @return bytecode of the class
+         */
+        byte[] getBytes() {
+            return bytes.toByteArray();
+        }
+    }
+
+    /**
+     * File manager which reads sources and libraries as the standard one does, but keeps compiled classes in memory.
+     */
+    private static class MemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+        /**
+         * Compiled classes by their binary names
+         */
+        private final Map<String, ClassFile> classes = new TreeMap<>();
+
+        /**
+         * Creates file manager forwarding to <tt>fileManager</tt>.
+         *
+         * @param fileManager standard file manager
+         */
+        MemoryFileManager(StandardJavaFileManager fileManager) {
+            super(fileManager);
+        }
+
+        /**
+         * Returns in-memory {@link ClassFile} for class <tt>className</tt>.
+         *
+         * @param location  ignored, all classes are kept in memory
+         * @param className binary name of the class
+         * @param kind      kind of the file
+         * @param sibling   ignored, all classes are kept in memory
+         * @return file collecting bytecode of the class
+         */
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind, FileObject sibling) {
+            ClassFile file = new ClassFile(className);
+            synchronized (classes) {
+                classes.put(className, file);
+            }
+            return file;
+        }
+
+        /**
+         * Returns bytecode of compiled classes.
+         *
+         * @return bytecode of compiled classes by their binary names, ordered by the names
+         */
+        Map<String, byte[]> getClasses() {
+            Map<String, byte[]> result = new TreeMap<>();
+            synchronized (classes) {
+                classes.forEach((name, file) -> result.put(name, file.getBytes()));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Creates and writes <tt>.jar</tt> file by {@link Path} <tt>jarFile</tt>.
+     * Resulting <tt>.jar</tt> contains {@link Manifest} with attribute <tt>MANIFEST_VERSION</tt>. Also it contains
+     * <tt>classes</tt> which are written directly from memory.
      *
-     * @param token   type token which compiled class zipping in <tt>.jar</tt>
-     * @param root    root directory
+     * @param classes bytecode of classes by their binary names
      * @param jarFile target <tt>.jar</tt> file.
      * @throws ImplerException if creation .jar can not be done
      */
-    private void writeJarFile(Class<?> token, Path root, Path jarFile) throws ImplerException {
+    void writeJarFile(Map<String, byte[]> classes, Path jarFile) throws ImplerException {
         Manifest manifest = new Manifest();
         Attributes attributes = manifest.getMainAttributes();
         attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0");
         try (JarOutputStream writer = new JarOutputStream(Files.newOutputStream(jarFile), manifest)) {
-            writer.putNextEntry(new ZipEntry(token.getName().replace('.', '/') + "Impl.class"));
-            Files.copy(getFilePath(token, root, false), writer);
+            for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+                writer.putNextEntry(new ZipEntry(entry.getKey().replace('.', '/') + ".class"));
+                writer.write(entry.getValue());
+                writer.closeEntry();
+            }
         } catch (IOException e) {
             throw new ImplerException("Unable to create JAR file", e);
         }
@@ -460,7 +912,8 @@ public class Implementor implements Impler, JarImpler {
      * Produces <tt>.jar</tt> file implementing class or interface specified by provided <tt>token</tt>.
      * <p>
      * Generated class full name is same as full name of the type token with <tt>Impl</tt> suffix
-     * added.
+     * added. The source is generated and compiled in memory, so no temporary files are created and
+     * concurrent calls do not interfere.
      *
      * @param token   type token to create implementation for.
      * @param jarFile target <tt>.jar</tt> file.
@@ -468,72 +921,97 @@ public class Implementor implements Impler, JarImpler {
      */
     @Override
     public void implementJar(Class<?> token, Path jarFile) throws ImplerException {
-        Path tmpDirectory = Paths.get("tmp");
-        implement(token, tmpDirectory);
-        compileClass(tmpDirectory, getFilePath(token, tmpDirectory, true));
-        writeJarFile(token, tmpDirectory, jarFile);
-        try {
-            cleanTmp(tmpDirectory);
-        } catch (IOException e) {
-            throw new ImplerException("Unable to delete temporary directory", e);
+        if (token == null || jarFile == null) {
+            throw new ImplerException("Passed arguments are incorrect");
         }
+        checkToken(token);
+        writeJarFile(implementClasses(Collections.singletonList(token)), jarFile);
     }
 
     /**
-     * Recursively deletes file or directory by <tt>path</tt>.
+     * Produces single <tt>.jar</tt> file implementing every class or interface of <tt>tokens</tt>.
+     * <p>
+     * All implementations are compiled together, which is much faster than implementing each of them by
+     * {@link #implementJar(Class, Path)}.
      *
-     * @param path path to file or directory for deleting
-     * @throws IOException if an I/O error occurs
+     * @param tokens  type tokens to create implementations for
+     * @param jarFile target <tt>.jar</tt> file
+     * @throws ImplerException when implementation of any token cannot be generated
      */
-    private static void cleanTmp(Path path) throws IOException {
-        Files.walkFileTree(path, new Deleter());
+    public void implementJar(Collection<Class<?>> tokens, Path jarFile) throws ImplerException {
+        if (tokens == null || jarFile == null) {
+            throw new ImplerException("Passed arguments are incorrect");
+        }
+        writeJarFile(implementClasses(checkTokens(tokens)), jarFile);
     }
 
     /**
-     * Class for deleting directories recursively
+     * Produces <tt>.jar</tt> file for every class or interface of <tt>jarFiles</tt> which implements it.
+     * <p>
+     * All implementations are compiled together as by {@link #implementJar(Collection, Path)}, then the files are
+     * written using up to <tt>threads</tt> worker threads. Failures of writing are reported as by
+     * {@link #implementAll(Collection, Path, int)}.
+     *
+     * @param jarFiles target <tt>.jar</tt> files by type tokens to create implementations for
+     * @param threads  maximal number of worker threads
+     * @throws ImplerException when implementation of any token cannot be generated or any file cannot be written
      */
-    private static class Deleter extends SimpleFileVisitor<Path> {
-
-        /**
-         * Initializes a new instance of this class.
-         */
-        public Deleter() {
+    public void implementJars(Map<Class<?>, Path> jarFiles, int threads) throws ImplerException {
+        if (jarFiles == null || threads <= 0) {
+            throw new ImplerException("Passed arguments are incorrect");
         }
-
-        /**
-         * Deletes file by {@link Path}
-         *
-         * @param file       current file in file tree which should be deleted
-         * @param attributes attributes of <tt>file</tt>
-         * @return next file in file tree
-         * @throws IOException if an I/O error occurs
-         * @see FileVisitResult#CONTINUE
-         */
-        @Override
-        public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
-            Files.delete(file);
-            return FileVisitResult.CONTINUE;
+        for (Path jarFile : jarFiles.values()) {
+            if (jarFile == null) {
+                throw new ImplerException("Passed arguments are incorrect");
+            }
         }
+        Set<Class<?>> tokens = checkTokens(jarFiles.keySet());
+        Map<String, byte[]> classes = implementClasses(tokens);
+        forEachToken(tokens, threads, token -> writeJarFile(getClassesOf(token, classes), jarFiles.get(token)));
+    }
 
-        /**
-         * Deletes directory by {@link Path}
-         *
-         * @param dir       current directory in file tree which should be deleted
-         * @param exception {@code null} if the iteration of the directory completes without
-         *                  an error; otherwise the I/O exception that caused the iteration
-         *                  of the directory to complete prematurely
-         * @return {@link FileVisitResult#CONTINUE
-         * CONTINUE} if the directory iteration completes without an I/O exception;
-         * otherwise this method re-throws the I/O exception that caused the iteration
-         * of the directory to terminate prematurely.
-         * @throws IOException if an I/O error occurs
-         * @see FileVisitResult#CONTINUE
-         */
-        @Override
-        public FileVisitResult postVisitDirectory(Path dir, IOException exception) throws IOException {
-            Files.delete(dir);
-            return FileVisitResult.CONTINUE;
+    /**
+     * Checks that implementations of all <tt>tokens</tt> can be generated and do not clash by their names.
+     *
+     * @param tokens type tokens to create implementations for
+     * @return <tt>tokens</tt> ordered by their names
+     * @throws ImplerException with the name of the first incorrect token, if there is any
+     * @see #checkToken(Class)
+     * @see #getConstructorsToImplement(Class)
+     */
+    private Set<Class<?>> checkTokens(Collection<Class<?>> tokens) throws ImplerException {
+        Set<Class<?>> sorted = sortTokens(tokens);
+        Set<String> names = new HashSet<>();
+        for (Class<?> token : sorted) {
+            try {
+                checkToken(token);
+                getConstructorsToImplement(token);
+            } catch (ImplerException e) {
+                throw new ImplerException(token.getName() + ": " + e.getMessage(), e);
+            }
+            if (!names.add(getImplFullName(token))) {
+                throw new ImplerException("Several implementations are named " + getImplFullName(token));
+            }
         }
+        return sorted;
+    }
+
+    /**
+     * Returns classes of implementation of <tt>token</tt>, which are the implementation and its nested classes.
+     *
+     * @param token   type token to create implementation for
+     * @param classes compiled classes by their binary names
+     * @return classes of implementation of <tt>token</tt> by their binary names
+     */
+    private static Map<String, byte[]> getClassesOf(Class<?> token, Map<String, byte[]> classes) {
+        String name = getImplFullName(token);
+        Map<String, byte[]> result = new TreeMap<>();
+        classes.forEach((className, bytes) -> {
+            if (className.equals(name) || className.startsWith(name + "$")) {
+                result.put(className, bytes);
+            }
+        });
+        return result;
     }
 
 
@@ -544,14 +1022,18 @@ public class Implementor implements Impler, JarImpler {
      * <ul>
      * <li>{@code java -jar Implementor.jar -jar class-to-implement path-to-jar}</li>
      * <li>{@code java -jar Implementor.jar class-to-implement path-to-class}</li>
+     * <li>{@code java -jar Implementor.jar -batch path-to-jar-or-directory package path-to-root}</li>
      * </ul>
+     * In batch mode, every interface and abstract class found by {@link #findTokens(Path, String)} is implemented
+     * using one thread per available processor. If the number of arguments does not match the mode selected by the
+     * first one, the usage is printed and nothing is implemented.
      *
      * @param args command line arguments.
      * @see Implementor
      */
     public static void main(String[] args) {
-        if (args == null || (args.length != 2 && args.length != 3)) {
-            System.out.println("Wrong amount of arguments. Expected 2 or 3.");
+        if (args == null || args.length == 0) {
+            System.out.println("Wrong amount of arguments." + System.lineSeparator() + USAGE);
             return;
         }
         for (String arg : args) {
@@ -560,10 +1042,19 @@ public class Implementor implements Impler, JarImpler {
                 return;
             }
         }
+        int expected = args[0].equals("-batch") ? 4 : args[0].equals("-jar") ? 3 : 2;
+        if (args.length != expected) {
+            System.out.println("Wrong amount of arguments. Expected " + expected + " in this mode."
+                    + System.lineSeparator() + USAGE);
+            return;
+        }
 
         try {
             Implementor implementor = new Implementor();
-            if (args[0].equals("-jar")) {
+            if (args[0].equals("-batch")) {
+                implementor.implementAll(findTokens(Paths.get(args[1]), args[2]), Paths.get(args[3]),
+                        Runtime.getRuntime().availableProcessors());
+            } else if (args[0].equals("-jar")) {
                 implementor.implementJar(Class.forName(args[1]), Paths.get(args[2]));
             } else {
                 implementor.implement(Class.forName(args[0]), Paths.get(args[1]));
@@ -574,6 +1065,9 @@ public class Implementor implements Impler, JarImpler {
             System.out.println("Incorrect class name in input: " + e.getMessage());
         } catch (ImplerException e) {
             System.out.println("Exception was thrown during the implementation: " + e.getMessage());
+            for (Throwable suppressed : e.getSuppressed()) {
+                System.out.println("    " + suppressed.getMessage());
+            }
         }
     }
 }
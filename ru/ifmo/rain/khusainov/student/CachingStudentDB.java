@@ -0,0 +1,325 @@
+package ru.ifmo.rain.khusainov.student;
+
+import info.kgeorgiy.java.advanced.student.Group;
+import info.kgeorgiy.java.advanced.student.Student;
+import info.kgeorgiy.java.advanced.student.StudentGroupQuery;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded LRU cache in front of another {@link StudentGroupQuery}. Results are keyed by query, argument and the
+ * identity of the queried collection, so a collection that is modified after being queried must be
+ * {@link #invalidate(Collection) invalidated}. Cached results are unmodifiable copies.
+ * <p>
+ * Queried collections are referenced weakly, and entries of collections that were garbage collected are dropped.
+ * The least recently used entries are evicted when either the number of entries exceeds the capacity or their total
+ * weight, the number of elements in cached results, exceeds the maximal weight.
+ */
+public class CachingStudentDB implements StudentGroupQuery {
+    public static final int DEFAULT_CAPACITY = 1 << 10;
+    public static final long DEFAULT_MAX_WEIGHT = 1L << 24;
+
+    private final StudentGroupQuery delegate;
+    private final int capacity;
+    private final long maxWeight;
+    private final Map<Key, Entry> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReferenceQueue<Collection<Student>> collected = new ReferenceQueue<>();
+    private long weight;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public CachingStudentDB(StudentGroupQuery delegate, int capacity, long maxWeight) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity should be positive: " + capacity);
+        }
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("Maximal weight should be positive: " + maxWeight);
+        }
+        this.delegate = Objects.requireNonNull(delegate);
+        this.capacity = capacity;
+        this.maxWeight = maxWeight;
+    }
+
+    public CachingStudentDB(StudentGroupQuery delegate, int capacity) {
+        this(delegate, capacity, DEFAULT_MAX_WEIGHT);
+    }
+
+    public CachingStudentDB(StudentGroupQuery delegate) {
+        this(delegate, DEFAULT_CAPACITY);
+    }
+
+    public CachingStudentDB() {
+        this(new StudentDB());
+    }
+
+    public void invalidate(Collection<Student> students) {
+        synchronized (cache) {
+            removeIf(key -> key.get() == students);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (cache) {
+            cache.clear();
+            weight = 0;
+        }
+    }
+
+    public int size() {
+        synchronized (cache) {
+            purge();
+            return cache.size();
+        }
+    }
+
+    public long getWeight() {
+        synchronized (cache) {
+            purge();
+            return weight;
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <R> R cached(String query, Collection<Student> students, Object argument,
+                         Supplier<R> compute, UnaryOperator<R> freeze) {
+        synchronized (cache) {
+            purge();
+            final Entry entry = cache.get(new Key(query, students, argument, null));
+            if (entry != null) {
+                hits.increment();
+                return (R) entry.result;
+            }
+        }
+        // computed outside of the lock, so concurrent misses on the same key may compute it twice
+        misses.increment();
+        final R result = freeze.apply(compute.get());
+        final long resultWeight = weigh(result);
+        if (resultWeight <= maxWeight) {
+            synchronized (cache) {
+                final Entry old = cache.put(new Key(query, students, argument, collected), new Entry(result, resultWeight));
+                weight += resultWeight - (old == null ? 0 : old.weight);
+                evict();
+            }
+        }
+        return result;
+    }
+
+    private <R> R cached(String query, Collection<Student> students, Supplier<R> compute, UnaryOperator<R> freeze) {
+        return cached(query, students, null, compute, freeze);
+    }
+
+    private void purge() {
+        for (Reference<?> key; (key = collected.poll()) != null; ) {
+            final Entry entry = cache.remove(key);
+            if (entry != null) {
+                weight -= entry.weight;
+            }
+        }
+    }
+
+    private void evict() {
+        final Iterator<Entry> eldest = cache.values().iterator();
+        while ((cache.size() > capacity || weight > maxWeight) && eldest.hasNext()) {
+            weight -= eldest.next().weight;
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private void removeIf(Predicate<Key> predicate) {
+        final Iterator<Map.Entry<Key, Entry>> entries = cache.entrySet().iterator();
+        while (entries.hasNext()) {
+            final Map.Entry<Key, Entry> entry = entries.next();
+            if (predicate.test(entry.getKey())) {
+                weight -= entry.getValue().weight;
+                entries.remove();
+            }
+        }
+    }
+
+    private static long weigh(Object result) {
+        if (result instanceof Map) {
+            return 1 + 2L * ((Map<?, ?>) result).size();
+        }
+        if (!(result instanceof Collection)) {
+            return 1;
+        }
+        long weight = 1 + ((Collection<?>) result).size();
+        for (Object element : (Collection<?>) result) {
+            if (!(element instanceof Group)) {
+                break;
+            }
+            weight += ((Group) element).getStudents().size();
+        }
+        return weight;
+    }
+
+    // results are copied, so they do not keep the weakly referenced collection reachable through a view of it
+    private static <T> List<T> copyOf(List<T> list) {
+        return Collections.unmodifiableList(new ArrayList<>(list));
+    }
+
+    private static Set<String> copyOf(Set<String> set) {
+        return Collections.unmodifiableSet(new TreeSet<>(set));
+    }
+
+    private static Map<String, String> copyOf(Map<String, String> map) {
+        return Collections.unmodifiableMap(new HashMap<>(map));
+    }
+
+    private static List<Group> copyOfGroups(List<Group> groups) {
+        return Collections.unmodifiableList(groups.stream()
+                .map(g -> new Group(g.getName(), copyOf(g.getStudents())))
+                .collect(Collectors.toList()));
+    }
+
+    private static final class Key extends WeakReference<Collection<Student>> {
+        private final String query;
+        private final Object argument;
+        private final int hash;
+
+        Key(String query, Collection<Student> students, Object argument, ReferenceQueue<Collection<Student>> queue) {
+            super(students, queue);
+            this.query = query;
+            this.argument = argument;
+            hash = (query.hashCode() * 31 + System.identityHashCode(students)) * 31 + Objects.hashCode(argument);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            final Collection<Student> students = get();
+            return hash == other.hash
+                    && students != null
+                    && students == other.get()
+                    && query.equals(other.query)
+                    && Objects.equals(argument, other.argument);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Entry {
+        final Object result;
+        final long weight;
+
+        Entry(Object result, long weight) {
+            this.result = result;
+            this.weight = weight;
+        }
+    }
+
+    @Override
+    public List<String> getFirstNames(List<Student> students) {
+        return cached("getFirstNames", students, () -> delegate.getFirstNames(students), CachingStudentDB::copyOf);
+    }
+
+    @Override
+    public List<String> getLastNames(List<Student> students) {
+        return cached("getLastNames", students, () -> delegate.getLastNames(students), CachingStudentDB::copyOf);
+    }
+
+    @Override
+    public List<String> getGroups(List<Student> students) {
+        return cached("getGroups", students, () -> delegate.getGroups(students), CachingStudentDB::copyOf);
+    }
+
+    @Override
+    public List<String> getFullNames(List<Student> students) {
+        return cached("getFullNames", students, () -> delegate.getFullNames(students), CachingStudentDB::copyOf);
+    }
+
+    @Override
+    public Set<String> getDistinctFirstNames(List<Student> students) {
+        return cached("getDistinctFirstNames", students, () -> delegate.getDistinctFirstNames(students), CachingStudentDB::copyOf);
+    }
+
+    @Override
+    public String getMinStudentFirstName(List<Student> students) {
+        return cached("getMinStudentFirstName", students, () -> delegate.getMinStudentFirstName(students), UnaryOperator.identity());
+    }
+
+    @Override
+    public List<Student> sortStudentsById(Collection<Student> students) {
+        return cached("sortStudentsById", students, () -> delegate.sortStudentsById(students), CachingStudentDB::copyOf);
+    }
+
+    @Override
+    public List<Student> sortStudentsByName(Collection<Student> students) {
+        return cached("sortStudentsByName", students, () -> delegate.sortStudentsByName(students), CachingStudentDB::copyOf);
+    }
+
+    @Override
+    public List<Student> findStudentsByFirstName(Collection<Student> students, String name) {
+        return cached("findStudentsByFirstName", students, name,
+                () -> delegate.findStudentsByFirstName(students, name), CachingStudentDB::copyOf);
+    }
+
+    @Override
+    public List<Student> findStudentsByLastName(Collection<Student> students, String name) {
+        return cached("findStudentsByLastName", students, name,
+                () -> delegate.findStudentsByLastName(students, name), CachingStudentDB::copyOf);
+    }
+
+    @Override
+    public List<Student> findStudentsByGroup(Collection<Student> students, String group) {
+        return cached("findStudentsByGroup", students, group,
+                () -> delegate.findStudentsByGroup(students, group), CachingStudentDB::copyOf);
+    }
+
+    @Override
+    public Map<String, String> findStudentNamesByGroup(Collection<Student> students, String group) {
+        return cached("findStudentNamesByGroup", students, group,
+                () -> delegate.findStudentNamesByGroup(students, group), CachingStudentDB::copyOf);
+    }
+
+    @Override
+    public List<Group> getGroupsByName(Collection<Student> students) {
+        return cached("getGroupsByName", students, () -> delegate.getGroupsByName(students), CachingStudentDB::copyOfGroups);
+    }
+
+    @Override
+    public List<Group> getGroupsById(Collection<Student> students) {
+        return cached("getGroupsById", students, () -> delegate.getGroupsById(students), CachingStudentDB::copyOfGroups);
+    }
+
+    @Override
+    public String getLargestGroup(Collection<Student> students) {
+        return cached("getLargestGroup", students, () -> delegate.getLargestGroup(students), UnaryOperator.identity());
+    }
+
+    @Override
+    public String getLargestGroupFirstName(Collection<Student> students) {
+        return cached("getLargestGroupFirstName", students, () -> delegate.getLargestGroupFirstName(students), UnaryOperator.identity());
+    }
+}
@@ -0,0 +1,266 @@
+package ru.ifmo.rain.khusainov.student;
+
+import info.kgeorgiy.java.advanced.student.Group;
+import info.kgeorgiy.java.advanced.student.Student;
+import info.kgeorgiy.java.advanced.student.StudentGroupQuery;
+
+import java.nio.IntBuffer;
+import java.util.*;
+
+/**
+ * Queries over {@link StudentColumns}. Queries over {@link #getStudents()} are answered from the columns and return
+ * unmodifiable views; any other collection is delegated to {@link StudentDB}.
+ */
+abstract class ColumnarStudentDB implements StudentGroupQuery {
+    private final StudentDB fallback = new StudentDB();
+
+    final StudentColumns columns;
+
+    private final List<Student> byId;
+    private final List<Student> byName;
+    private final List<Student> byFirstName;
+    private final List<Student> byLastName;
+    private final List<Student> byGroupAndName;
+    private final Set<String> distinctFirstNames;
+    private final List<Group> groupsByName;
+    private final List<Group> groupsById;
+    private final List<String> groupsBySize;
+
+    ColumnarStudentDB(StudentColumns columns) {
+        this.columns = columns;
+        byId = view(columns.byId);
+        byName = view(columns.byName);
+        byFirstName = view(columns.byFirstName);
+        byLastName = view(columns.byLastName);
+        byGroupAndName = view(columns.byGroupAndName);
+        distinctFirstNames = Collections.unmodifiableSortedSet(new TreeSet<>(Arrays.asList(columns.firstNames)));
+        groupsByName = groupList(byGroupAndName);
+        groupsById = groupList(view(columns.byGroupAndId));
+        groupsBySize = groupsBySize(columns);
+    }
+
+    public abstract List<Student> getStudents();
+
+    abstract Student student(int index);
+
+    private List<Student> view(IntBuffer order) {
+        return new OrderedStudents(order);
+    }
+
+    private final class OrderedStudents extends AbstractList<Student> implements RandomAccess {
+        private final IntBuffer order;
+
+        OrderedStudents(IntBuffer order) {
+            this.order = order;
+        }
+
+        @Override
+        public Student get(int index) {
+            return student(order.get(index));
+        }
+
+        @Override
+        public int size() {
+            return order.limit();
+        }
+    }
+
+    private static List<Student> slice(List<Student> ordered, IntBuffer starts, int code) {
+        return code < 0 ? Collections.emptyList() : ordered.subList(starts.get(code), starts.get(code + 1));
+    }
+
+    private List<Group> groupList(List<Student> ordered) {
+        final List<Group> result = new ArrayList<>(columns.groups.length);
+        for (int g = 0; g < columns.groups.length; g++) {
+            result.add(new Group(columns.groups[g], slice(ordered, columns.groupStarts, g)));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    // sizes descending, then names ascending, which is the order of group codes; packed into longs to sort primitives
+    private static List<String> groupsBySize(StudentColumns columns) {
+        final long[] keys = new long[columns.groups.length];
+        for (int g = 0; g < keys.length; g++) {
+            keys[g] = (long) (columns.groupStarts.get(g) - columns.groupStarts.get(g + 1)) << 32 | g;
+        }
+        Arrays.sort(keys);
+        final String[] names = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            names[i] = columns.groups[(int) keys[i]];
+        }
+        return Collections.unmodifiableList(Arrays.asList(names));
+    }
+
+    private static int code(String[] dictionary, String value) {
+        final int code = Arrays.binarySearch(dictionary, value);
+        return code < 0 ? -1 : code;
+    }
+
+    private static String decode(String[] dictionary, int code) {
+        return code < 0 ? "" : dictionary[code];
+    }
+
+    private List<String> decode(String[] dictionary, IntBuffer column) {
+        return new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                return dictionary[column.get(index)];
+            }
+
+            @Override
+            public int size() {
+                return column.limit();
+            }
+        };
+    }
+
+    boolean isIndexed(Collection<Student> students) {
+        return students == getStudents();
+    }
+
+    @Override
+    public List<String> getFirstNames(List<Student> students) {
+        return isIndexed(students) ? decode(columns.firstNames, columns.firstCodes) : fallback.getFirstNames(students);
+    }
+
+    @Override
+    public List<String> getLastNames(List<Student> students) {
+        return isIndexed(students) ? decode(columns.lastNames, columns.lastCodes) : fallback.getLastNames(students);
+    }
+
+    @Override
+    public List<String> getGroups(List<Student> students) {
+        return isIndexed(students) ? decode(columns.groups, columns.groupCodes) : fallback.getGroups(students);
+    }
+
+    @Override
+    public List<String> getFullNames(List<Student> students) {
+        if (!isIndexed(students)) {
+            return fallback.getFullNames(students);
+        }
+        return new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                return columns.firstNames[columns.firstCodes.get(index)] + " "
+                        + columns.lastNames[columns.lastCodes.get(index)];
+            }
+
+            @Override
+            public int size() {
+                return columns.size;
+            }
+        };
+    }
+
+    @Override
+    public Set<String> getDistinctFirstNames(List<Student> students) {
+        return isIndexed(students) ? distinctFirstNames : fallback.getDistinctFirstNames(students);
+    }
+
+    @Override
+    public String getMinStudentFirstName(List<Student> students) {
+        if (!isIndexed(students)) {
+            return fallback.getMinStudentFirstName(students);
+        }
+        return decode(columns.firstNames, columns.minFirstName);
+    }
+
+    @Override
+    public List<Student> sortStudentsById(Collection<Student> students) {
+        return isIndexed(students) ? byId : fallback.sortStudentsById(students);
+    }
+
+    @Override
+    public List<Student> sortStudentsByName(Collection<Student> students) {
+        return isIndexed(students) ? byName : fallback.sortStudentsByName(students);
+    }
+
+    @Override
+    public List<Student> findStudentsByFirstName(Collection<Student> students, String name) {
+        if (!isIndexed(students)) {
+            return fallback.findStudentsByFirstName(students, name);
+        }
+        return slice(byFirstName, columns.firstNameStarts, code(columns.firstNames, name));
+    }
+
+    @Override
+    public List<Student> findStudentsByLastName(Collection<Student> students, String name) {
+        if (!isIndexed(students)) {
+            return fallback.findStudentsByLastName(students, name);
+        }
+        return slice(byLastName, columns.lastNameStarts, code(columns.lastNames, name));
+    }
+
+    @Override
+    public List<Student> findStudentsByGroup(Collection<Student> students, String group) {
+        if (!isIndexed(students)) {
+            return fallback.findStudentsByGroup(students, group);
+        }
+        return slice(byGroupAndName, columns.groupStarts, code(columns.groups, group));
+    }
+
+    @Override
+    public Map<String, String> findStudentNamesByGroup(Collection<Student> students, String group) {
+        if (!isIndexed(students)) {
+            return fallback.findStudentNamesByGroup(students, group);
+        }
+        final int code = code(columns.groups, group);
+        if (code < 0) {
+            return Collections.emptyMap();
+        }
+        // students of a group are ordered by name, so the first one with a given last name has the least first name
+        final Map<String, String> names = new HashMap<>();
+        for (int i = columns.groupStarts.get(code); i < columns.groupStarts.get(code + 1); i++) {
+            final int student = columns.byGroupAndName.get(i);
+            names.putIfAbsent(columns.lastNames[columns.lastCodes.get(student)],
+                    columns.firstNames[columns.firstCodes.get(student)]);
+        }
+        return Collections.unmodifiableMap(names);
+    }
+
+    @Override
+    public List<Group> getGroupsByName(Collection<Student> students) {
+        return isIndexed(students) ? groupsByName : fallback.getGroupsByName(students);
+    }
+
+    @Override
+    public List<Group> getGroupsById(Collection<Student> students) {
+        return isIndexed(students) ? groupsById : fallback.getGroupsById(students);
+    }
+
+    @Override
+    public String getLargestGroup(Collection<Student> students) {
+        if (!isIndexed(students)) {
+            return fallback.getLargestGroup(students);
+        }
+        return decode(columns.groups, columns.largestGroup);
+    }
+
+    @Override
+    public String getLargestGroupFirstName(Collection<Student> students) {
+        if (!isIndexed(students)) {
+            return fallback.getLargestGroupFirstName(students);
+        }
+        return decode(columns.groups, columns.largestGroupFirstName);
+    }
+
+    public List<Student> getFirstStudentsByName(Collection<Student> students, int k) {
+        if (!isIndexed(students)) {
+            return fallback.getFirstStudentsByName(students, k);
+        }
+        if (k < 0) {
+            throw new IllegalArgumentException("Negative number of elements: " + k);
+        }
+        return byName.subList(0, Math.min(k, byName.size()));
+    }
+
+    public List<String> getLargestGroups(Collection<Student> students, int k) {
+        if (!isIndexed(students)) {
+            return fallback.getLargestGroups(students, k);
+        }
+        if (k < 0) {
+            throw new IllegalArgumentException("Negative number of elements: " + k);
+        }
+        return groupsBySize.subList(0, Math.min(k, groupsBySize.size()));
+    }
+}
@@ -0,0 +1,45 @@
+package ru.ifmo.rain.khusainov.student;
+
+import info.kgeorgiy.java.advanced.student.Student;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable snapshot of a roster with precomputed indexes. Queries over {@link #getStudents()} are answered
+ * from the indexes and return unmodifiable results; any other collection is delegated to {@link StudentDB}.
+ * <p>
+ * First names, last names and groups are dictionary-encoded: each dictionary is sorted, so comparing codes
+ * gives the same order as comparing the strings, and all orderings are built by stable bucket sorts over codes.
+ * The indexes can be {@link #write(Path) saved} and later opened with {@link MappedStudentDB#open(Path)}.
+ */
+public class IndexedStudentDB extends ColumnarStudentDB {
+    private final List<Student> students;
+
+    public IndexedStudentDB(Collection<Student> students) {
+        this(Collections.unmodifiableList(new ArrayList<>(students)));
+    }
+
+    private IndexedStudentDB(List<Student> students) {
+        super(StudentColumns.of(students));
+        this.students = students;
+    }
+
+    @Override
+    public List<Student> getStudents() {
+        return students;
+    }
+
+    @Override
+    Student student(int index) {
+        return students.get(index);
+    }
+
+    public void write(Path file) throws IOException {
+        columns.write(file);
+    }
+}
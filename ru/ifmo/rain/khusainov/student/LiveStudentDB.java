@@ -0,0 +1,434 @@
+package ru.ifmo.rain.khusainov.student;
+
+import info.kgeorgiy.java.advanced.student.Group;
+import info.kgeorgiy.java.advanced.student.Student;
+import info.kgeorgiy.java.advanced.student.StudentGroupQuery;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Roster of students with unique ids that is updated in place. Writers are serialized by a single lock and update
+ * only the groups they touch and the global orders; readers query immutable {@link Snapshot snapshots} without locking.
+ * <p>
+ * All orders are kept in {@link SortedChunks}, persistent sorted lists split into short chunks: a change copies one
+ * chunk and the table of chunks, and every other chunk is shared with the previous snapshot.
+ */
+public class LiveStudentDB {
+    private static final StudentDB FALLBACK = new StudentDB();
+    private static final Comparator<Student> BY_ID_COMPARATOR = Comparator.comparingInt(Student::getId);
+
+    private final Object lock = new Object();
+    private final Map<Integer, Student> students = new HashMap<>();
+    private final Map<String, GroupState> groups = new HashMap<>();
+    private SortedChunks byId = SortedChunks.empty(BY_ID_COMPARATOR);
+    private SortedChunks byName = SortedChunks.empty(StudentDB.BY_NAME_COMPARATOR);
+    private volatile Snapshot snapshot = new Snapshot(new TreeMap<>(), byId, byName);
+
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    public void add(Student student) {
+        addAll(Collections.singletonList(student));
+    }
+
+    public void addAll(Collection<Student> added) {
+        synchronized (lock) {
+            final Set<Integer> ids = new HashSet<>();
+            for (Student student : added) {
+                if (students.containsKey(student.getId()) || !ids.add(student.getId())) {
+                    throw new IllegalArgumentException("Duplicate student id: " + student.getId());
+                }
+            }
+            final Map<String, List<Student>> byGroup = new HashMap<>();
+            for (Student student : added) {
+                students.put(student.getId(), student);
+                byGroup.computeIfAbsent(student.getGroup(), g -> new ArrayList<>()).add(student);
+            }
+            byGroup.forEach((name, list) -> groups.computeIfAbsent(name, g -> new GroupState()).insertAll(list));
+            byId = byId.withAll(added);
+            byName = byName.withAll(added);
+            publish(byGroup.keySet());
+        }
+    }
+
+    public void update(Student student) {
+        synchronized (lock) {
+            final Student old = students.get(student.getId());
+            if (old == null) {
+                throw new IllegalArgumentException("Unknown student id: " + student.getId());
+            }
+            students.put(student.getId(), student);
+            final String deleted = delete(old);
+            groups.computeIfAbsent(student.getGroup(), g -> new GroupState()).insertAll(Collections.singletonList(student));
+            byId = byId.with(student);
+            byName = byName.with(student);
+            publish(Arrays.asList(deleted, student.getGroup()));
+        }
+    }
+
+    public boolean remove(int id) {
+        synchronized (lock) {
+            final Student old = students.remove(id);
+            if (old == null) {
+                return false;
+            }
+            publish(Collections.singletonList(delete(old)));
+            return true;
+        }
+    }
+
+    private String delete(Student student) {
+        final GroupState state = groups.get(student.getGroup());
+        state.delete(student);
+        if (state.byId.isEmpty()) {
+            groups.remove(student.getGroup());
+        }
+        byId = byId.without(student);
+        byName = byName.without(student);
+        return student.getGroup();
+    }
+
+    private void publish(Collection<String> changed) {
+        final TreeMap<String, GroupView> views = new TreeMap<>(snapshot.groups);
+        for (String name : changed) {
+            final GroupState state = groups.get(name);
+            if (state == null) {
+                views.remove(name);
+            } else {
+                views.put(name, state.view(name));
+            }
+        }
+        snapshot = new Snapshot(views, byId, byName);
+    }
+
+    private static final class GroupState {
+        SortedChunks byId = SortedChunks.empty(BY_ID_COMPARATOR);
+        SortedChunks byName = SortedChunks.empty(StudentDB.BY_NAME_COMPARATOR);
+        final Map<String, Integer> firstNames = new HashMap<>();
+
+        void insertAll(Collection<Student> students) {
+            byId = byId.withAll(students);
+            byName = byName.withAll(students);
+            for (Student student : students) {
+                firstNames.merge(student.getFirstName(), 1, Integer::sum);
+            }
+        }
+
+        void delete(Student student) {
+            byId = byId.without(student);
+            byName = byName.without(student);
+            firstNames.computeIfPresent(student.getFirstName(), (name, count) -> count == 1 ? null : count - 1);
+        }
+
+        GroupView view(String name) {
+            return new GroupView(new Group(name, byName), new Group(name, byId), firstNames.size());
+        }
+    }
+
+    private static final class GroupView {
+        final Group byName;
+        final Group byId;
+        final int distinctFirstNames;
+
+        GroupView(Group byName, Group byId, int distinctFirstNames) {
+            this.byName = byName;
+            this.byId = byId;
+            this.distinctFirstNames = distinctFirstNames;
+        }
+
+        int size() {
+            return byId.getStudents().size();
+        }
+    }
+
+    /**
+     * Immutable list of students sorted by a comparator, stored as consecutive chunks of at most {@code 2 * CHUNK}
+     * students. A chunk that shrinks below {@code CHUNK / 2} is merged with a neighbour, so only a single chunk may be
+     * shorter. Insertion and removal return a new list sharing all chunks but the changed ones.
+     */
+    private static final class SortedChunks extends AbstractList<Student> implements RandomAccess {
+        private static final int CHUNK = 512;
+
+        private final Comparator<Student> comparator;
+        private final Student[][] chunks;
+        private final int[] offsets;
+
+        private SortedChunks(Comparator<Student> comparator, Student[][] chunks) {
+            this.comparator = comparator;
+            this.chunks = chunks;
+            offsets = new int[chunks.length + 1];
+            for (int i = 0; i < chunks.length; i++) {
+                offsets[i + 1] = offsets[i] + chunks[i].length;
+            }
+        }
+
+        static SortedChunks empty(Comparator<Student> comparator) {
+            return new SortedChunks(comparator, new Student[0][]);
+        }
+
+        @Override
+        public Student get(int index) {
+            Objects.checkIndex(index, size());
+            final int found = Arrays.binarySearch(offsets, 0, chunks.length, index);
+            final int chunk = found >= 0 ? found : -found - 2;
+            return chunks[chunk][index - offsets[chunk]];
+        }
+
+        @Override
+        public int size() {
+            return offsets[chunks.length];
+        }
+
+        // index of the first chunk whose last student is not less than student, or of the last chunk
+        private int chunkOf(Student student) {
+            int low = 0;
+            int high = chunks.length - 1;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                final Student[] chunk = chunks[mid];
+                if (comparator.compare(chunk[chunk.length - 1], student) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        SortedChunks with(Student student) {
+            if (chunks.length == 0) {
+                return new SortedChunks(comparator, new Student[][]{{student}});
+            }
+            final int index = chunkOf(student);
+            final Student[] chunk = chunks[index];
+            final int position = -Arrays.binarySearch(chunk, student, comparator) - 1;
+            final Student[] inserted = new Student[chunk.length + 1];
+            System.arraycopy(chunk, 0, inserted, 0, position);
+            inserted[position] = student;
+            System.arraycopy(chunk, position, inserted, position + 1, chunk.length - position);
+            if (inserted.length <= 2 * CHUNK) {
+                final Student[][] replaced = chunks.clone();
+                replaced[index] = inserted;
+                return new SortedChunks(comparator, replaced);
+            }
+            final Student[][] split = new Student[chunks.length + 1][];
+            System.arraycopy(chunks, 0, split, 0, index);
+            split[index] = Arrays.copyOfRange(inserted, 0, CHUNK);
+            split[index + 1] = Arrays.copyOfRange(inserted, CHUNK, inserted.length);
+            System.arraycopy(chunks, index + 1, split, index + 2, chunks.length - index - 1);
+            return new SortedChunks(comparator, split);
+        }
+
+        SortedChunks without(Student student) {
+            if (chunks.length == 0) {
+                return this;
+            }
+            final int index = chunkOf(student);
+            final Student[] chunk = chunks[index];
+            final int position = Arrays.binarySearch(chunk, student, comparator);
+            if (position < 0) {
+                return this;
+            }
+            final Student[] deleted = new Student[chunk.length - 1];
+            System.arraycopy(chunk, 0, deleted, 0, position);
+            System.arraycopy(chunk, position + 1, deleted, position, deleted.length - position);
+            if (chunks.length == 1 || deleted.length >= CHUNK / 2) {
+                final Student[][] replaced = chunks.clone();
+                replaced[index] = deleted;
+                return deleted.length == 0 ? empty(comparator) : new SortedChunks(comparator, replaced);
+            }
+            // a short chunk is merged with a neighbour, and the result is split in halves if it is too long
+            final int left = index == chunks.length - 1 ? index - 1 : index;
+            final Student[] first = left == index ? deleted : chunks[left];
+            final Student[] second = left == index ? chunks[left + 1] : deleted;
+            final Student[] merged = Arrays.copyOf(first, first.length + second.length);
+            System.arraycopy(second, 0, merged, first.length, second.length);
+            final boolean split = merged.length > 2 * CHUNK;
+            final Student[][] rebuilt = new Student[split ? chunks.length : chunks.length - 1][];
+            System.arraycopy(chunks, 0, rebuilt, 0, left);
+            if (split) {
+                rebuilt[left] = Arrays.copyOfRange(merged, 0, merged.length / 2);
+                rebuilt[left + 1] = Arrays.copyOfRange(merged, merged.length / 2, merged.length);
+            } else {
+                rebuilt[left] = merged;
+            }
+            System.arraycopy(chunks, left + 2, rebuilt, split ? left + 2 : left + 1, chunks.length - left - 2);
+            return new SortedChunks(comparator, rebuilt);
+        }
+
+        SortedChunks withAll(Collection<Student> students) {
+            // a few students are inserted one by one, many are merged into newly cut chunks
+            if (students.size() < chunks.length) {
+                SortedChunks result = this;
+                for (Student student : students) {
+                    result = result.with(student);
+                }
+                return result;
+            }
+            final Student[] added = students.toArray(new Student[0]);
+            Arrays.sort(added, comparator);
+            final Student[] merged = new Student[size() + added.length];
+            int i = 0;
+            int j = 0;
+            for (int k = 0; k < merged.length; k++) {
+                if (j == added.length || i < size() && comparator.compare(get(i), added[j]) < 0) {
+                    merged[k] = get(i++);
+                } else {
+                    merged[k] = added[j++];
+                }
+            }
+            final Student[][] cut = new Student[(merged.length + CHUNK - 1) / CHUNK][];
+            for (int k = 0; k < cut.length; k++) {
+                cut[k] = Arrays.copyOfRange(merged, k * CHUNK, Math.min(merged.length, (k + 1) * CHUNK));
+            }
+            return new SortedChunks(comparator, cut);
+        }
+    }
+
+    /**
+     * Immutable state of the roster at some point. Queries over {@link #getStudents()} are answered from the
+     * per-group views and the global orders; any other collection is delegated to {@link StudentDB}.
+     */
+    public static final class Snapshot implements StudentGroupQuery {
+        private final SortedMap<String, GroupView> groups;
+        private final List<Student> byId;
+        private final List<Student> byName;
+
+        private Snapshot(SortedMap<String, GroupView> groups, List<Student> byId, List<Student> byName) {
+            this.groups = groups;
+            this.byId = byId;
+            this.byName = byName;
+        }
+
+        public int size() {
+            return byId.size();
+        }
+
+        public List<Student> getStudents() {
+            return byId;
+        }
+
+        private boolean isIndexed(Collection<Student> students) {
+            return students != null && students == byId;
+        }
+
+        private List<Group> groupList(Function<GroupView, Group> group) {
+            return Collections.unmodifiableList(groups.values().stream()
+                    .map(group)
+                    .collect(Collectors.toList()));
+        }
+
+        private String largestGroup(Comparator<GroupView> comparator) {
+            String best = "";
+            GroupView bestView = null;
+            for (Map.Entry<String, GroupView> entry : groups.entrySet()) {
+                if (bestView == null || comparator.compare(entry.getValue(), bestView) > 0) {
+                    best = entry.getKey();
+                    bestView = entry.getValue();
+                }
+            }
+            return best;
+        }
+
+        @Override
+        public List<String> getFirstNames(List<Student> students) {
+            return FALLBACK.getFirstNames(students);
+        }
+
+        @Override
+        public List<String> getLastNames(List<Student> students) {
+            return FALLBACK.getLastNames(students);
+        }
+
+        @Override
+        public List<String> getGroups(List<Student> students) {
+            return FALLBACK.getGroups(students);
+        }
+
+        @Override
+        public List<String> getFullNames(List<Student> students) {
+            return FALLBACK.getFullNames(students);
+        }
+
+        @Override
+        public Set<String> getDistinctFirstNames(List<Student> students) {
+            return FALLBACK.getDistinctFirstNames(students);
+        }
+
+        @Override
+        public String getMinStudentFirstName(List<Student> students) {
+            return FALLBACK.getMinStudentFirstName(students);
+        }
+
+        @Override
+        public List<Student> sortStudentsById(Collection<Student> students) {
+            return isIndexed(students) ? byId : FALLBACK.sortStudentsById(students);
+        }
+
+        @Override
+        public List<Student> sortStudentsByName(Collection<Student> students) {
+            return isIndexed(students) ? byName : FALLBACK.sortStudentsByName(students);
+        }
+
+        @Override
+        public List<Student> findStudentsByFirstName(Collection<Student> students, String name) {
+            return FALLBACK.findStudentsByFirstName(students, name);
+        }
+
+        @Override
+        public List<Student> findStudentsByLastName(Collection<Student> students, String name) {
+            return FALLBACK.findStudentsByLastName(students, name);
+        }
+
+        @Override
+        public List<Student> findStudentsByGroup(Collection<Student> students, String group) {
+            if (!isIndexed(students)) {
+                return FALLBACK.findStudentsByGroup(students, group);
+            }
+            final GroupView view = groups.get(group);
+            return view == null ? Collections.emptyList() : view.byName.getStudents();
+        }
+
+        @Override
+        public Map<String, String> findStudentNamesByGroup(Collection<Student> students, String group) {
+            if (!isIndexed(students)) {
+                return FALLBACK.findStudentNamesByGroup(students, group);
+            }
+            // students of a group are ordered by name, so the first one with a given last name has the least first name
+            final Map<String, String> names = new HashMap<>();
+            for (Student student : findStudentsByGroup(students, group)) {
+                names.putIfAbsent(student.getLastName(), student.getFirstName());
+            }
+            return Collections.unmodifiableMap(names);
+        }
+
+        @Override
+        public List<Group> getGroupsByName(Collection<Student> students) {
+            return isIndexed(students) ? groupList(v -> v.byName) : FALLBACK.getGroupsByName(students);
+        }
+
+        @Override
+        public List<Group> getGroupsById(Collection<Student> students) {
+            return isIndexed(students) ? groupList(v -> v.byId) : FALLBACK.getGroupsById(students);
+        }
+
+        @Override
+        public String getLargestGroup(Collection<Student> students) {
+            if (!isIndexed(students)) {
+                return FALLBACK.getLargestGroup(students);
+            }
+            return largestGroup(Comparator.comparingInt(GroupView::size));
+        }
+
+        @Override
+        public String getLargestGroupFirstName(Collection<Student> students) {
+            if (!isIndexed(students)) {
+                return FALLBACK.getLargestGroupFirstName(students);
+            }
+            return largestGroup(Comparator.comparingInt(v -> v.distinctFirstNames));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package ru.ifmo.rain.khusainov.student;
+
+import info.kgeorgiy.java.advanced.student.Student;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Roster snapshot memory-mapped from a file written by {@link IndexedStudentDB#write(Path)}. Queries are answered
+ * from the mapped columns like in {@link IndexedStudentDB}; a {@link Student} is created only when it is first
+ * accessed and then reused, so results keep their identity.
+ */
+public class MappedStudentDB extends ColumnarStudentDB {
+    private final AtomicReferenceArray<Student> students;
+    private final List<Student> view = new Students();
+
+    private MappedStudentDB(StudentColumns columns) {
+        super(columns);
+        students = new AtomicReferenceArray<>(columns.size);
+    }
+
+    public static MappedStudentDB open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new MappedStudentDB(StudentColumns.read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())));
+        }
+    }
+
+    @Override
+    public List<Student> getStudents() {
+        return view;
+    }
+
+    @Override
+    Student student(int index) {
+        final Student student = students.get(index);
+        if (student != null) {
+            return student;
+        }
+        students.compareAndSet(index, null, columns.student(index));
+        return students.get(index);
+    }
+
+    private final class Students extends AbstractList<Student> implements RandomAccess {
+        @Override
+        public Student get(int index) {
+            return student(index);
+        }
+
+        @Override
+        public int size() {
+            return columns.size;
+        }
+    }
+}
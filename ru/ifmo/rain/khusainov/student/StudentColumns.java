@@ -0,0 +1,331 @@
+package ru.ifmo.rain.khusainov.student;
+
+import info.kgeorgiy.java.advanced.student.Student;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Dictionary-encoded columns of a roster together with its sort permutations. Each dictionary is sorted, so
+ * comparing codes gives the same order as comparing the strings. All int columns live in one buffer, which is
+ * either built on the heap or mapped from a file written by {@link #write(Path)}.
+ * <p>
+ * File layout (big-endian): magic, version, number of students, the first name, last name and group dictionaries
+ * (each a count followed by length-prefixed UTF-8 strings, padded to four bytes), then the int columns in the
+ * order of the fields below.
+ */
+final class StudentColumns {
+    private static final int MAGIC = 0x53444231;
+    private static final int VERSION = 1;
+    private static final int ORDERS = 6;
+    private static final int SCALARS = 3;
+
+    final int size;
+    final String[] firstNames;
+    final String[] lastNames;
+    final String[] groups;
+
+    final IntBuffer ids;
+    final IntBuffer firstCodes;
+    final IntBuffer lastCodes;
+    final IntBuffer groupCodes;
+    final IntBuffer firstNameStarts;
+    final IntBuffer lastNameStarts;
+    final IntBuffer groupStarts;
+    final IntBuffer byId;
+    final IntBuffer byName;
+    final IntBuffer byFirstName;
+    final IntBuffer byLastName;
+    final IntBuffer byGroupAndName;
+    final IntBuffer byGroupAndId;
+    final int minFirstName;
+    final int largestGroup;
+    final int largestGroupFirstName;
+
+    private final IntBuffer ints;
+
+    private StudentColumns(int size, String[] firstNames, String[] lastNames, String[] groups, IntBuffer ints) {
+        this.size = size;
+        this.firstNames = firstNames;
+        this.lastNames = lastNames;
+        this.groups = groups;
+        this.ints = ints.duplicate();
+
+        ids = next(ints, size);
+        firstCodes = next(ints, size);
+        lastCodes = next(ints, size);
+        groupCodes = next(ints, size);
+        firstNameStarts = next(ints, firstNames.length + 1);
+        lastNameStarts = next(ints, lastNames.length + 1);
+        groupStarts = next(ints, groups.length + 1);
+        byId = next(ints, size);
+        byName = next(ints, size);
+        byFirstName = next(ints, size);
+        byLastName = next(ints, size);
+        byGroupAndName = next(ints, size);
+        byGroupAndId = next(ints, size);
+        minFirstName = ints.get();
+        largestGroup = ints.get();
+        largestGroupFirstName = ints.get();
+    }
+
+    private static int length(int size, String[] firstNames, String[] lastNames, String[] groups) {
+        return (4 + ORDERS) * size + firstNames.length + lastNames.length + groups.length + 3 + SCALARS;
+    }
+
+    private static IntBuffer next(IntBuffer ints, int length) {
+        final IntBuffer column = ints.slice();
+        column.limit(length);
+        ints.position(ints.position() + length);
+        return column;
+    }
+
+    Student student(int index) {
+        return new Student(ids.get(index),
+                firstNames[firstCodes.get(index)],
+                lastNames[lastCodes.get(index)],
+                groups[groupCodes.get(index)]);
+    }
+
+    static StudentColumns of(List<Student> students) {
+        final int size = students.size();
+        final String[] firstNames = dictionary(students, Student::getFirstName);
+        final String[] lastNames = dictionary(students, Student::getLastName);
+        final String[] groups = dictionary(students, Student::getGroup);
+        final int[] firstCodes = encode(students, firstNames, Student::getFirstName);
+        final int[] lastCodes = encode(students, lastNames, Student::getLastName);
+        final int[] groupCodes = encode(students, groups, Student::getGroup);
+        final int[] firstNameStarts = starts(firstCodes, firstNames.length);
+        final int[] lastNameStarts = starts(lastCodes, lastNames.length);
+        final int[] groupStarts = starts(groupCodes, groups.length);
+
+        final int[] ids = new int[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = students.get(i).getId();
+        }
+        final int[] byId = sortById(ids);
+        final int[] byName = bucketSort(bucketSort(byId, firstCodes, firstNameStarts), lastCodes, lastNameStarts);
+        final int[] byGroupAndName = bucketSort(byName, groupCodes, groupStarts);
+
+        final IntBuffer ints = IntBuffer.allocate(length(size, firstNames, lastNames, groups));
+        ints.put(ids).put(firstCodes).put(lastCodes).put(groupCodes)
+                .put(firstNameStarts).put(lastNameStarts).put(groupStarts)
+                .put(byId).put(byName)
+                .put(bucketSort(byName, firstCodes, firstNameStarts))
+                .put(bucketSort(byName, lastCodes, lastNameStarts))
+                .put(byGroupAndName)
+                .put(bucketSort(byId, groupCodes, groupStarts))
+                .put(Arrays.binarySearch(firstNames, new StudentDB().getMinStudentFirstName(students)))
+                .put(largestGroup(groupStarts))
+                .put(largestGroupFirstName(byGroupAndName, firstCodes, firstNames.length, groupStarts));
+        ints.rewind();
+        return new StudentColumns(size, firstNames, lastNames, groups, ints);
+    }
+
+    private static String[] dictionary(List<Student> students, Function<Student, String> key) {
+        return students.stream()
+                .map(key)
+                .distinct()
+                .sorted()
+                .toArray(String[]::new);
+    }
+
+    private static int[] encode(List<Student> students, String[] dictionary, Function<Student, String> key) {
+        final Map<String, Integer> codes = new HashMap<>();
+        for (int i = 0; i < dictionary.length; i++) {
+            codes.put(dictionary[i], i);
+        }
+        final int[] column = new int[students.size()];
+        for (int i = 0; i < column.length; i++) {
+            column[i] = codes.get(key.apply(students.get(i)));
+        }
+        return column;
+    }
+
+    private static int[] starts(int[] column, int size) {
+        final int[] starts = new int[size + 1];
+        for (int code : column) {
+            starts[code + 1]++;
+        }
+        for (int i = 0; i < size; i++) {
+            starts[i + 1] += starts[i];
+        }
+        return starts;
+    }
+
+    private static int[] bucketSort(int[] order, int[] column, int[] starts) {
+        final int[] next = Arrays.copyOf(starts, starts.length - 1);
+        final int[] sorted = new int[order.length];
+        for (int i : order) {
+            sorted[next[column[i]]++] = i;
+        }
+        return sorted;
+    }
+
+    private static int[] sortById(int[] ids) {
+        final long[] keys = new long[ids.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = (long) ids[i] << 32 | i;
+        }
+        Arrays.sort(keys);
+        final int[] order = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            order[i] = (int) keys[i];
+        }
+        return order;
+    }
+
+    private static int largestGroup(int[] groupStarts) {
+        int best = -1;
+        for (int g = 0; g + 1 < groupStarts.length; g++) {
+            if (best < 0 || groupStarts[g + 1] - groupStarts[g] > groupStarts[best + 1] - groupStarts[best]) {
+                best = g;
+            }
+        }
+        return best;
+    }
+
+    private static int largestGroupFirstName(int[] groupOrder, int[] firstCodes, int firstNames, int[] groupStarts) {
+        final int[] seenIn = new int[firstNames];
+        Arrays.fill(seenIn, -1);
+        int best = -1;
+        int bestCount = 0;
+        for (int g = 0; g + 1 < groupStarts.length; g++) {
+            int count = 0;
+            for (int i = groupStarts[g]; i < groupStarts[g + 1]; i++) {
+                final int first = firstCodes[groupOrder[i]];
+                if (seenIn[first] != g) {
+                    seenIn[first] = g;
+                    count++;
+                }
+            }
+            if (best < 0 || count > bestCount) {
+                best = g;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+
+    void write(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(size);
+            writeDictionary(out, firstNames);
+            writeDictionary(out, lastNames);
+            writeDictionary(out, groups);
+            while (out.size() % Integer.BYTES != 0) {
+                out.writeByte(0);
+            }
+            for (int i = 0; i < ints.limit(); i++) {
+                out.writeInt(ints.get(i));
+            }
+        }
+    }
+
+    private static void writeDictionary(DataOutputStream out, String[] dictionary) throws IOException {
+        out.writeInt(dictionary.length);
+        for (String value : dictionary) {
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    static StudentColumns read(ByteBuffer buffer) throws IOException {
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a student snapshot");
+            }
+            final int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported student snapshot version: " + version);
+            }
+            final int size = buffer.getInt();
+            final String[] firstNames = readDictionary(buffer);
+            final String[] lastNames = readDictionary(buffer);
+            final String[] groups = readDictionary(buffer);
+            buffer.position((buffer.position() + Integer.BYTES - 1) / Integer.BYTES * Integer.BYTES);
+            final IntBuffer ints = buffer.slice().asIntBuffer();
+            if (ints.remaining() != length(size, firstNames, lastNames, groups)) {
+                throw new IOException("Truncated student snapshot");
+            }
+            final StudentColumns columns = new StudentColumns(size, firstNames, lastNames, groups, ints);
+            columns.validate();
+            return columns;
+        } catch (BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException e) {
+            throw new IOException("Malformed student snapshot", e);
+        }
+    }
+
+    // checked once, so a corrupt file fails to open instead of failing some later query
+    private void validate() throws IOException {
+        checkDictionary(firstNames);
+        checkDictionary(lastNames);
+        checkDictionary(groups);
+        checkCodes(firstCodes, firstNameStarts, firstNames.length);
+        checkCodes(lastCodes, lastNameStarts, lastNames.length);
+        checkCodes(groupCodes, groupStarts, groups.length);
+        for (IntBuffer order : Arrays.asList(byId, byName, byFirstName, byLastName, byGroupAndName, byGroupAndId)) {
+            for (int i = 0; i < size; i++) {
+                check(0 <= order.get(i) && order.get(i) < size, "Student index out of range");
+            }
+        }
+        checkScalar(minFirstName, firstNames.length);
+        checkScalar(largestGroup, groups.length);
+        checkScalar(largestGroupFirstName, groups.length);
+    }
+
+    private static void checkDictionary(String[] dictionary) throws IOException {
+        for (int i = 1; i < dictionary.length; i++) {
+            check(dictionary[i - 1].compareTo(dictionary[i]) < 0, "Dictionary is not sorted");
+        }
+    }
+
+    private void checkCodes(IntBuffer codes, IntBuffer starts, int count) throws IOException {
+        final int[] expected = new int[count + 1];
+        for (int i = 0; i < size; i++) {
+            final int code = codes.get(i);
+            check(0 <= code && code < count, "Code out of range");
+            expected[code + 1]++;
+        }
+        check(starts.get(0) == 0, "Starts do not begin at zero");
+        for (int i = 0; i < count; i++) {
+            expected[i + 1] += expected[i];
+            check(starts.get(i + 1) == expected[i + 1], "Starts do not match codes");
+        }
+    }
+
+    private static void checkScalar(int code, int count) throws IOException {
+        check(count == 0 ? code == -1 : 0 <= code && code < count, "Code out of range");
+    }
+
+    private static void check(boolean condition, String message) throws IOException {
+        if (!condition) {
+            throw new IOException("Malformed student snapshot: " + message);
+        }
+    }
+
+    private static String[] readDictionary(ByteBuffer buffer) {
+        final String[] dictionary = new String[buffer.getInt()];
+        for (int i = 0; i < dictionary.length; i++) {
+            final byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            dictionary[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return dictionary;
+    }
+}
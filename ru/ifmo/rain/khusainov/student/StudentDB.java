@@ -5,24 +5,59 @@ import info.kgeorgiy.java.advanced.student.Student;
 import info.kgeorgiy.java.advanced.student.StudentGroupQuery;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.stream.Collector;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class StudentDB implements StudentGroupQuery {
 
-    private static final Comparator<Student> BY_NAME_COMPARATOR = Comparator
+    static final Comparator<Student> BY_NAME_COMPARATOR = Comparator
             .comparing(Student::getLastName)
             .thenComparing(Comparator.comparing(Student::getFirstName))
             .thenComparing(Comparator.comparingInt(Student::getId));
 
+    private final int parallelThreshold;
+    private final ForkJoinPool pool;
+
+    public StudentDB() {
+        this(Integer.MAX_VALUE);
+    }
+
+    public StudentDB(int parallelThreshold) {
+        this(parallelThreshold, null);
+    }
+
+    public StudentDB(int parallelThreshold, ForkJoinPool pool) {
+        this.parallelThreshold = parallelThreshold;
+        this.pool = pool;
+    }
+
+    private boolean isParallel(Collection<Student> students) {
+        return students.size() >= parallelThreshold;
+    }
+
+    private Stream<Student> stream(Collection<Student> students) {
+        return isParallel(students) ? students.parallelStream() : students.stream();
+    }
+
+    private <R> R execute(Collection<Student> students, Supplier<R> query) {
+        if (pool != null && isParallel(students)) {
+            return pool.invoke(ForkJoinTask.adapt(query::get));
+        }
+        return query.get();
+    }
+
     private List<String> getStudentsInfo(List<Student> students, Function<Student, String> mapper) {
-        return students.stream()
+        return execute(students, () -> stream(students)
                 .map(mapper)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     @Override
@@ -47,17 +82,17 @@ public class StudentDB implements StudentGroupQuery {
 
     @Override
     public Set<String> getDistinctFirstNames(List<Student> students) {
-        return students.stream()
+        return execute(students, () -> stream(students)
                 .map(Student::getFirstName)
-                .collect(Collectors.toCollection(TreeSet::new));
+                .collect(Collectors.toCollection(TreeSet::new)));
     }
 
     @Override
     public String getMinStudentFirstName(List<Student> students) {
-        return students.stream()
+        return execute(students, () -> stream(students)
                 .min(Student::compareTo)
                 .map(Student::getFirstName)
-                .orElse("");
+                .orElse(""));
     }
 
     private Stream<Student> sortByComparator(Stream<Student> students, Comparator<Student> comparator) {
@@ -66,18 +101,27 @@ public class StudentDB implements StudentGroupQuery {
     }
 
     private List<Student> sortByComparator(Collection<Student> students, Comparator<Student> comparator) {
-        return sortByComparator(students.stream(), comparator)
-                .collect(Collectors.toList());
+        return execute(students, () -> sortByComparator(stream(students), comparator)
+                .collect(Collectors.toList()));
+    }
+
+    private List<Student> sortByKeys(Collection<Student> students, Comparator<Student> comparator, Consumer<List<Student>> sort) {
+        if (isParallel(students)) {
+            return sortByComparator(students, comparator);
+        }
+        final List<Student> sorted = new ArrayList<>(students);
+        sort.accept(sorted);
+        return sorted;
     }
 
     @Override
     public List<Student> sortStudentsById(Collection<Student> students) {
-        return sortByComparator(students, Comparator.comparingInt(Student::getId));
+        return sortByKeys(students, Comparator.comparingInt(Student::getId), StudentSorts::sortById);
     }
 
     @Override
     public List<Student> sortStudentsByName(Collection<Student> students) {
-        return sortByComparator(students, BY_NAME_COMPARATOR);
+        return sortByKeys(students, BY_NAME_COMPARATOR, StudentSorts::sortByName);
     }
 
     private Stream<Student> findStudentsByPredicate(Stream<Student> students, Predicate<Student> predicate) {
@@ -86,8 +130,8 @@ public class StudentDB implements StudentGroupQuery {
     }
 
     private List<Student> findStudentsByPredicate(Collection<Student> students, Predicate<Student> predicate) {
-        return findStudentsByPredicate(students.stream(), predicate)
-                .collect(Collectors.toList());
+        return execute(students, () -> findStudentsByPredicate(stream(students), predicate)
+                .collect(Collectors.toList()));
     }
 
     private Predicate<Student> getPredicateByFunction(Function<Student, String> function, String parameter) {
@@ -95,11 +139,10 @@ public class StudentDB implements StudentGroupQuery {
     }
 
     private List<Student> findStudentsAndSort(Collection<Student> students, Function<Student, String> f, String value) {
-        return sortByComparator(
-                findStudentsByPredicate(students.stream(),
-                        getPredicateByFunction(f, value)),
-                BY_NAME_COMPARATOR)
-                .collect(Collectors.toList());
+        return sortByKeys(
+                findStudentsByPredicate(students, getPredicateByFunction(f, value)),
+                BY_NAME_COMPARATOR,
+                StudentSorts::sortByName);
     }
 
     @Override
@@ -119,67 +162,111 @@ public class StudentDB implements StudentGroupQuery {
 
     @Override
     public Map<String, String> findStudentNamesByGroup(Collection<Student> students, String group) {
-        return findStudentsByPredicate(students.stream(), getPredicateByFunction(Student::getGroup, group))
+        return execute(students, () -> findStudentsByPredicate(stream(students), getPredicateByFunction(Student::getGroup, group))
                 .collect(Collectors.toMap(
                         Student::getLastName,
                         Student::getFirstName,
-                        BinaryOperator.minBy(Comparator.naturalOrder())));
+                        BinaryOperator.minBy(Comparator.naturalOrder()))));
     }
 
     private Stream<Map.Entry<String, List<Student>>> getGroupStream(Collection<Student> students, Supplier<Map<String, List<Student>>> mapType) {
-        return students.stream()
+        final Set<Map.Entry<String, List<Student>>> groups = stream(students)
                 .collect(Collectors.groupingBy(Student::getGroup, mapType, Collectors.toList()))
-                .entrySet()
-                .stream();
-    }
-
-    private Stream<Map.Entry<String, List<Student>>> getGroupStream(Collection<Student> students) {
-        return getGroupStream(students, HashMap::new);
+                .entrySet();
+        return isParallel(students) ? groups.parallelStream() : groups.stream();
     }
 
     private Stream<Map.Entry<String, List<Student>>> getSortedGroupStream(Collection<Student> students) {
         return getGroupStream(students, TreeMap::new);
     }
 
-    private List<Group> getSortedListOfGroupsByInnerComparator(Collection<Student> students, Comparator<Student> comparator) {
-        return getSortedGroupStream(students)
-                .peek((e) -> e.getValue().sort(comparator))
+    private List<Group> getSortedListOfGroupsByInnerOrder(Collection<Student> students, Consumer<List<Student>> sort) {
+        return execute(students, () -> getSortedGroupStream(students)
+                .peek((e) -> sort.accept(e.getValue()))
                 .map((e) -> new Group(e.getKey(), e.getValue()))
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     @Override
     public List<Group> getGroupsByName(Collection<Student> students) {
-        return getSortedListOfGroupsByInnerComparator(students, BY_NAME_COMPARATOR);
+        return getSortedListOfGroupsByInnerOrder(students, StudentSorts::sortByName);
     }
 
     @Override
     public List<Group> getGroupsById(Collection<Student> students) {
-        return getSortedListOfGroupsByInnerComparator(students, Comparator.comparingInt(Student::getId));
+        return getSortedListOfGroupsByInnerOrder(students, StudentSorts::sortById);
+    }
+
+    private <T> List<T> top(Iterable<T> elements, int k, Comparator<? super T> comparator) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Negative number of elements: " + k);
+        }
+        if (k == 0) {
+            return Collections.emptyList();
+        }
+        // ties are broken by encounter order, so the result is a prefix of the stable sort
+        final Comparator<Map.Entry<Integer, T>> order = Map.Entry.<Integer, T>comparingByValue(comparator)
+                .thenComparing(Map.Entry.comparingByKey());
+        final PriorityQueue<Map.Entry<Integer, T>> heap = new PriorityQueue<>(order.reversed());
+        int index = 0;
+        for (T element : elements) {
+            final Map.Entry<Integer, T> entry = new AbstractMap.SimpleImmutableEntry<>(index++, element);
+            if (heap.size() < k) {
+                heap.add(entry);
+            } else if (order.compare(entry, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(entry);
+            }
+        }
+        final List<T> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            result.add(heap.poll().getValue());
+        }
+        Collections.reverse(result);
+        return result;
     }
 
-    private String getGroupWithMaxByComparator(Collection<Student> students, Comparator<Map.Entry<String, List<Student>>> comparator) {
-        return getGroupStream(students)
-                .max(comparator
+    public List<Student> getFirstStudentsByName(Collection<Student> students, int k) {
+        return top(students, k, BY_NAME_COMPARATOR);
+    }
+
+    private Map<String, Long> getGroupSizes(Collection<Student> students) {
+        return execute(students, () -> stream(students)
+                .collect(Collectors.groupingBy(Student::getGroup, Collectors.counting())));
+    }
+
+    public List<String> getLargestGroups(Collection<Student> students, int k) {
+        return top(getGroupSizes(students).entrySet(), k,
+                Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .stream()
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    private String getGroupWithMaxBy(Collection<Student> students, Collector<Student, ?, Long> aggregate) {
+        return execute(students, () -> stream(students)
+                .collect(Collectors.groupingBy(Student::getGroup, aggregate))
+                .entrySet()
+                .stream()
+                .max(Map.Entry.<String, Long>comparingByValue()
                         .thenComparing(Map.Entry::getKey, Collections.reverseOrder(String::compareTo)))
                 .map(Map.Entry::getKey)
-                .orElse("");
+                .orElse(""));
     }
 
     @Override
     public String getLargestGroup(Collection<Student> students) {
-        return getGroupWithMaxByComparator(students, Comparator.comparingInt(e -> e.getValue().size()));
+        return getGroupWithMaxBy(students, Collectors.counting());
     }
 
     @Override
     public String getLargestGroupFirstName(Collection<Student> students) {
-        return getGroupWithMaxByComparator(
+        return getGroupWithMaxBy(
                 students,
-                Comparator.comparingLong(
-                        e -> e.getValue().stream()
-                                .map(Student::getFirstName)
-                                .distinct()
-                                .count()
+                Collectors.collectingAndThen(
+                        Collectors.mapping(Student::getFirstName, Collectors.toSet()),
+                        names -> (long) names.size()
                 )
         );
     }
@@ -0,0 +1,81 @@
+package ru.ifmo.rain.khusainov.student;
+
+import info.kgeorgiy.java.advanced.student.Student;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.ListIterator;
+
+/**
+ * Stable in-place sorts of students that sort packed primitive keys instead of comparing students.
+ * <p>
+ * A key holds a sort prefix in its high bits and the position of the student in its low 31 bits, so sorting
+ * keys is stable. For names the prefix is the first two UTF-16 units of the last name, padded with zeros:
+ * {@link String#compareTo} compares code units, so the prefix order never contradicts
+ * {@link StudentDB#BY_NAME_COMPARATOR}, and only runs of students with equal prefixes are compared in full.
+ */
+final class StudentSorts {
+    private static final int INDEX_BITS = 31;
+    private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+    private static final int SMALL = 1 << 6;
+
+    private StudentSorts() {
+    }
+
+    static void sortByName(List<Student> students) {
+        final Student[] array = students.toArray(new Student[0]);
+        if (array.length < SMALL) {
+            Arrays.sort(array, StudentDB.BY_NAME_COMPARATOR);
+            setAll(students, array);
+            return;
+        }
+        final long[] keys = new long[array.length];
+        for (int i = 0; i < array.length; i++) {
+            keys[i] = prefix(array[i].getLastName()) << INDEX_BITS | i;
+        }
+        Arrays.sort(keys);
+        final Student[] sorted = permute(array, keys);
+        for (int from = 0, to; from < keys.length; from = to) {
+            to = from + 1;
+            while (to < keys.length && keys[to] >>> INDEX_BITS == keys[from] >>> INDEX_BITS) {
+                to++;
+            }
+            if (to - from > 1) {
+                Arrays.sort(sorted, from, to, StudentDB.BY_NAME_COMPARATOR);
+            }
+        }
+        setAll(students, sorted);
+    }
+
+    static void sortById(List<Student> students) {
+        final Student[] array = students.toArray(new Student[0]);
+        final long[] keys = new long[array.length];
+        for (int i = 0; i < array.length; i++) {
+            keys[i] = (long) array[i].getId() << 32 | i;
+        }
+        Arrays.sort(keys);
+        setAll(students, permute(array, keys));
+    }
+
+    private static long prefix(String name) {
+        final long high = name.isEmpty() ? 0 : name.charAt(0);
+        final long low = name.length() < 2 ? 0 : name.charAt(1);
+        return high << Character.SIZE | low;
+    }
+
+    private static Student[] permute(Student[] array, long[] keys) {
+        final Student[] sorted = new Student[array.length];
+        for (int i = 0; i < keys.length; i++) {
+            sorted[i] = array[(int) (keys[i] & INDEX_MASK)];
+        }
+        return sorted;
+    }
+
+    private static void setAll(List<Student> students, Student[] sorted) {
+        final ListIterator<Student> iterator = students.listIterator();
+        for (Student student : sorted) {
+            iterator.next();
+            iterator.set(student);
+        }
+    }
+}